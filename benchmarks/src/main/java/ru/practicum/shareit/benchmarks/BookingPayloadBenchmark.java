@@ -0,0 +1,126 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.fields.SparseFieldsConfig;
+import ru.practicum.shareit.fields.SparseFieldsFilter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Размер и время сериализации страницы бронирований: прежний BookingDto с сущностями вещи и арендатора
+ * (вместе с владельцем, запросом и автором запроса) против кратких DTO и разреженного ответа fields=id,status,item.name.
+ * Размер ответа в байтах выводится при подготовке каждого прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingPayloadBenchmark {
+
+    private static final String SPARSE_FIELDS = "id,status,item.name";
+
+    @Param({"10", "100", "1000"})
+    private int bookings;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter sparseWriter;
+    private List<FullBookingDto> fullPage;
+    private List<BookingDto> page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        new SparseFieldsConfig().sparseFieldsCustomizer().customize(builder);
+        objectMapper = builder.build();
+        sparseWriter = objectMapper.writer(new SimpleFilterProvider()
+                .addFilter(SparseFieldsFilter.ID, new SparseFieldsFilter(SPARSE_FIELDS)));
+
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        List<Booking> entities = LongStream.rangeClosed(1, bookings)
+                .mapToObj(id -> Booking.builder().id(id).start(now.plusDays(id)).end(now.plusDays(id + 1))
+                        .item(Item.builder().id(id).name("Вещь " + id).description("Описание вещи " + id)
+                                .available(true).owner(owner)
+                                .request(ItemRequest.builder().id(id).description("Нужна вещь " + id)
+                                        .requestor(booker).created(now).build())
+                                .build())
+                        .booker(booker).status(BookingStatus.APPROVED).build())
+                .collect(Collectors.toList());
+        fullPage = entities.stream().map(FullBookingDto::new).collect(Collectors.toList());
+        page = entities.stream().map(BookingMapper::toDto).collect(Collectors.toList());
+
+        System.out.printf("%nPayload bytes for %d bookings: full %d, summary %d, sparse (%s) %d%n", bookings,
+                fullEntities().length, summaries().length, SPARSE_FIELDS, sparse().length);
+    }
+
+    @Benchmark
+    public byte[] fullEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fullPage);
+    }
+
+    @Benchmark
+    public byte[] summaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] sparse() throws JsonProcessingException {
+        return sparseWriter.writeValueAsBytes(page);
+    }
+
+    /**
+     * Прежняя форма BookingDto: вещь и арендатор сериализуются сущностями целиком
+     */
+    public static class FullBookingDto {
+        private final Booking booking;
+
+        FullBookingDto(Booking booking) {
+            this.booking = booking;
+        }
+
+        public Long getId() {
+            return booking.getId();
+        }
+
+        public LocalDateTime getStart() {
+            return booking.getStart();
+        }
+
+        public LocalDateTime getEnd() {
+            return booking.getEnd();
+        }
+
+        public Item getItem() {
+            return booking.getItem();
+        }
+
+        public User getBooker() {
+            return booking.getBooker();
+        }
+
+        public BookingStatus getStatus() {
+            return booking.getStatus();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.benchmarks;
+
+/**
+ * Сервис-заглушка для замера накладных расходов аспектов сервисов, см. {@link MetricsBenchmark}
+ */
+public interface EchoService {
+
+    long get(long id);
+
+    int list(String state, int size);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.benchmarks;
+
+public class EchoServiceImpl implements EchoService {
+
+    @Override
+    public long get(long id) {
+        return id;
+    }
+
+    @Override
+    public int list(String state, int size) {
+        return state.length() + size;
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingShortDto;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.model.ItemShortDto;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Преобразование сущностей в DTO мапперами common
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10"})
+    private int itemsPerRequest;
+
+    private Booking booking;
+    private Item item;
+    private Comment comment;
+    private ItemRequest itemRequest;
+    private List<Item> requestItems;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        itemRequest = ItemRequest.builder().id(1L).description("Нужна дрель").requestor(booker).created(now).build();
+        item = Item.builder().id(1L).name("Дрель").description("Ударная дрель").available(true)
+                .owner(owner).request(itemRequest).build();
+        booking = Booking.builder().id(1L).start(now.plusDays(1)).end(now.plusDays(2))
+                .item(item).booker(booker).status(BookingStatus.APPROVED).build();
+        comment = Comment.builder().id(1L).text("Отличная дрель").item(item).author(booker).created(now).build();
+        requestItems = LongStream.rangeClosed(1, itemsPerRequest)
+                .mapToObj(id -> Item.builder().id(id).name("Дрель " + id).description("Дрель").available(true)
+                        .owner(owner).request(itemRequest).build())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toDto(booking);
+    }
+
+    @Benchmark
+    public BookingShortDto bookingToShortDto() {
+        return BookingMapper.toShortDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toDto(item);
+    }
+
+    @Benchmark
+    public ItemShortDto itemToShortDto() {
+        return ItemMapper.toItemShortDto(item);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return CommentMapper.toDto(comment);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemRequestToDto() {
+        return ItemRequestMapper.toDto(itemRequest, requestItems.stream()
+                .map(ItemMapper::toItemShortDto)
+                .collect(Collectors.toList()));
+    }
+}
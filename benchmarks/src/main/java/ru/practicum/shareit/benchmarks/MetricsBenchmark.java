@@ -0,0 +1,54 @@
+package ru.practicum.shareit.benchmarks;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.practicum.shareit.metrics.ServiceMetricsAspect;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы таймеров сервисов: вызов через прокси Spring AOP без аспекта
+ * против прокси с {@link ServiceMetricsAspect} и реестром Prometheus с гистограммами перцентилей
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private EchoService plain;
+    private EchoService timed;
+
+    @Setup
+    public void setUp() {
+        plain = new AspectJProxyFactory(new EchoServiceImpl()).getProxy();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new EchoServiceImpl());
+        factory.addAspect(new ServiceMetricsAspect(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        timed = factory.getProxy();
+    }
+
+    @Benchmark
+    public long plainGet() {
+        return plain.get(42);
+    }
+
+    @Benchmark
+    public long timedGet() {
+        return timed.get(42);
+    }
+
+    @Benchmark
+    public int plainListWithState() {
+        return plain.list("CURRENT", 10);
+    }
+
+    @Benchmark
+    public int timedListWithState() {
+        return timed.list("CURRENT", 10);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.ratelimit.TokenBucket;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость пропуска запроса ограничителем gateway: поиск корзины пользователя в Caffeine и списание токена
+ * против одного поиска в Caffeine. Лимит заведомо не достигается, замеряется только путь пропуска,
+ * в том числе при конкуренции потоков за корзины популярных пользователей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "10000"})
+    private int users;
+
+    private Cache<String, TokenBucket> buckets;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        keys = new String[users];
+        for (int i = 0; i < users; i++) {
+            keys[i] = String.valueOf(i + 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        private String key(String[] keys) {
+            next = next + 1 < keys.length ? next + 1 : 0;
+            return keys[next];
+        }
+    }
+
+    @Benchmark
+    public TokenBucket lookup(Cursor cursor) {
+        long now = System.nanoTime();
+        return buckets.get(cursor.key(keys), ignored -> new TokenBucket(1_000_000, 1e9, now));
+    }
+
+    @Benchmark
+    public long acquire(Cursor cursor) {
+        long now = System.nanoTime();
+        return buckets.get(cursor.key(keys), ignored -> new TokenBucket(1_000_000, 1e9, now)).tryAcquire(now);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.benchmarks.loadtest.DataSeeder;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение пользователей, вещей и запросов по Id с выключенным и включённым кэшем второго уровня Hibernate.
+ * Число Id в выборке задаёт долю попаданий: при hotIds меньше размера региона после прогрева все чтения из кэша.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    @Param({"false", "true"})
+    private boolean secondLevelCache;
+
+    @Param({"1000"})
+    private int hotIds;
+
+    @Param({"2000"})
+    private int users;
+
+    @Param({"100"})
+    private int owners;
+
+    @Param({"10000"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private DataSeeder dataSeeder;
+    private UserService userService;
+    private ItemService itemService;
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:second-level-cache;DB_CLOSE_DELAY=-1",
+                        "shareit.cache.second-level.enabled=" + secondLevelCache,
+                        "logging.level.root=WARN")
+                .run();
+        dataSeeder = new DataSeeder(context.getBean(JdbcTemplate.class));
+        dataSeeder.seed(new DataSeeder.Volumes(users, owners, items, users / 2, 0, 0));
+        userService = context.getBean(UserService.class);
+        itemService = context.getBean(ItemService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDto userById() {
+        return userService.get(id(users));
+    }
+
+    @Benchmark
+    public ItemDto itemById() {
+        long itemId = id(items);
+        return itemService.get(itemId, dataSeeder.ownerOf(itemId));
+    }
+
+    @Benchmark
+    public ItemRequestDto requestById() {
+        return itemRequestService.get(id(users), id(users / 2));
+    }
+
+    private long id(int total) {
+        return ThreadLocalRandom.current().nextLong(1, Math.min(hotIds, total) + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.benchmarks.loadtest.DataSeeder;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вызовы сервисов сервера на встроенной H2, наполненной {@link DataSeeder}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"2000"})
+    private int users;
+
+    @Param({"100"})
+    private int owners;
+
+    @Param({"10000"})
+    private int items;
+
+    @Param({"100000"})
+    private int bookings;
+
+    private ConfigurableApplicationContext context;
+    private DataSeeder dataSeeder;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        dataSeeder = new DataSeeder(context.getBean(JdbcTemplate.class));
+        dataSeeder.seed(new DataSeeder.Volumes(users, owners, items, users / 2, bookings, bookings / 10));
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> itemsOfOwner() {
+        return itemService.getAll(owner(), 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public ItemDto itemOfOwner() {
+        long itemId = ThreadLocalRandom.current().nextLong(1, items + 1);
+        return itemService.get(itemId, dataSeeder.ownerOf(itemId));
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingsOfBooker() {
+        return bookingService.get("ALL", booker(), 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingsOfOwner() {
+        return bookingService.getByOwner("ALL", owner(), 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> requestsOfOthers() {
+        return itemRequestService.get(booker(), 0, PAGE_SIZE, null);
+    }
+
+    private long owner() {
+        return ThreadLocalRandom.current().nextLong(1, owners + 1);
+    }
+
+    private long booker() {
+        return ThreadLocalRandom.current().nextLong(owners + 1, users + 1);
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.benchmarks.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Наполнение пустой БД (H2 или PostgreSQL) пакетными вставками с перекосом, как в реальной нагрузке:
+ * у немногих владельцев большие каталоги, немногие популярные вещи собирают большую часть бронирований.
+ * Id выдаются по порядку с 1: пользователи 1..owners - владельцы вещей, остальные - арендаторы.
+ * После вставки последовательности Id сдвигаются за вставленные строки.
+ * <p>
+ * Запуск: DataSeeder --url=jdbc:postgresql://localhost:5432/shareit --user=root --password=root --users=10000
+ */
+public class DataSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final double SKEW = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+    private final LocalDateTime now = LocalDateTime.now();
+    private long[] itemOwners = new long[0];
+
+    public DataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> arguments = LoadRunner.parse(args);
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                arguments.getOrDefault("url", "jdbc:postgresql://localhost:5432/shareit"),
+                arguments.getOrDefault("user", "root"),
+                arguments.getOrDefault("password", "root"));
+        Volumes volumes = new Volumes(
+                Integer.parseInt(arguments.getOrDefault("users", "10000")),
+                Integer.parseInt(arguments.getOrDefault("owners", "500")),
+                Integer.parseInt(arguments.getOrDefault("items", "50000")),
+                Integer.parseInt(arguments.getOrDefault("requests", "5000")),
+                Integer.parseInt(arguments.getOrDefault("bookings", "500000")),
+                Integer.parseInt(arguments.getOrDefault("comments", "50000")));
+        long started = System.nanoTime();
+        new DataSeeder(new JdbcTemplate(dataSource)).seed(volumes);
+        System.out.printf("Seeded %s in %d ms%n", volumes, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void seed(Volumes volumes) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= volumes.users; i++) {
+            rows.add(new Object[]{i, "user" + i, "user" + i + "@mail.ru"});
+        }
+        insert("insert into users (id, name, email) values (?, ?, ?)", rows);
+
+        for (int i = 1; i <= volumes.requests; i++) {
+            rows.add(new Object[]{i, "Нужна вещь " + i, booker(volumes), at(-random.nextInt(365 * 24))});
+        }
+        insert("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)", rows);
+
+        itemOwners = new long[volumes.items + 1];
+        for (int i = 1; i <= volumes.items; i++) {
+            Long requestId = volumes.requests > 0 && random.nextInt(5) == 0 ? (long) random.nextInt(volumes.requests) + 1 : null;
+            itemOwners[i] = skewed(volumes.owners);
+            rows.add(new Object[]{i, "Вещь " + i, "Описание вещи " + i, random.nextInt(10) > 0, itemOwners[i], requestId});
+        }
+        insert("insert into items (id, name, description, available, owner_id, request_id) values (?, ?, ?, ?, ?, ?)", rows);
+
+        for (int i = 1; i <= volumes.bookings; i++) {
+            int startHours = random.nextInt(2 * 365 * 24) - 365 * 24;
+            rows.add(new Object[]{i, at(startHours), at(startHours + 1 + random.nextInt(72)),
+                    skewed(volumes.items), booker(volumes), status()});
+        }
+        insert("insert into bookings (id, start_date, end_date, item_id, booker_id, status) values (?, ?, ?, ?, ?, ?)", rows);
+
+        for (int i = 1; i <= volumes.comments; i++) {
+            rows.add(new Object[]{i, "Комментарий " + i, skewed(volumes.items), booker(volumes),
+                    at(-random.nextInt(365 * 24))});
+        }
+        insert("insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)", rows);
+
+        restartSequence("users_seq", volumes.users);
+        restartSequence("requests_seq", volumes.requests);
+        restartSequence("items_seq", volumes.items);
+        restartSequence("bookings_seq", volumes.bookings);
+        restartSequence("comments_seq", volumes.comments);
+    }
+
+    /**
+     * @return Id владельца вещи, заполненной последним вызовом seed
+     */
+    public long ownerOf(long itemId) {
+        return itemOwners[(int) itemId];
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+        rows.clear();
+    }
+
+    /**
+     * Сдвиг последовательности за вставленные Id: Hibernate выделяет блок из ALLOCATION_SIZE Id,
+     * заканчивающийся полученным из последовательности значением
+     */
+    private void restartSequence(String sequence, int inserted) {
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (inserted + ALLOCATION_SIZE));
+    }
+
+    /**
+     * Id от 1 до bound со степенным распределением: малые Id выпадают значительно чаще
+     */
+    private long skewed(int bound) {
+        return Math.min(bound, (long) (bound * Math.pow(random.nextDouble(), SKEW)) + 1);
+    }
+
+    private long booker(Volumes volumes) {
+        return volumes.owners + 1 + random.nextInt(volumes.users - volumes.owners);
+    }
+
+    private String status() {
+        int value = random.nextInt(10);
+        return value < 7 ? "APPROVED" : value < 9 ? "WAITING" : "REJECTED";
+    }
+
+    private Timestamp at(int hours) {
+        return Timestamp.valueOf(now.plusHours(hours));
+    }
+
+    /**
+     * Объёмы данных
+     */
+    public static final class Volumes {
+        private final int users;
+        private final int owners;
+        private final int items;
+        private final int requests;
+        private final int bookings;
+        private final int comments;
+
+        public Volumes(int users, int owners, int items, int requests, int bookings, int comments) {
+            if (owners < 1 || owners >= users) {
+                throw new IllegalArgumentException("Владельцев должно быть от 1 до количества пользователей - 1");
+            }
+            this.users = users;
+            this.owners = owners;
+            this.items = items;
+            this.requests = requests;
+            this.bookings = bookings;
+            this.comments = comments;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("users=%d, owners=%d, items=%d, requests=%d, bookings=%d, comments=%d",
+                    users, owners, items, requests, bookings, comments);
+        }
+    }
+}
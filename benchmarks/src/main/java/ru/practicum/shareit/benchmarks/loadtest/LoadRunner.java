@@ -0,0 +1,253 @@
+package ru.practicum.shareit.benchmarks.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Смешанная нагрузка на gateway и напрямую на сервер по данным {@link DataSeeder}.
+ * Для каждого эндпоинта выводятся пропускная способность и перцентили задержки,
+ * при указании обоих адресов - накладные расходы gateway относительно прямого вызова сервера.
+ * <p>
+ * Запуск: LoadRunner --gateway=http://localhost:8080 --server=http://localhost:9090 --threads=16 --duration=60
+ * Объёмы --users, --owners, --items должны совпадать с переданными DataSeeder.
+ */
+public class LoadRunner {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final double SKEW = 3;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<Operation> operations = new ArrayList<>();
+    private final int totalWeight;
+    private final int users;
+    private final int owners;
+    private final int items;
+
+    public LoadRunner(int users, int owners, int items) {
+        this.users = users;
+        this.owners = owners;
+        this.items = items;
+        operations.add(new Operation("GET /items", 15,
+                baseUrl -> get(baseUrl + "/items?from=0&size=20", owner())));
+        operations.add(new Operation("GET /items/{id}", 25,
+                baseUrl -> get(baseUrl + "/items/" + skewed(items), booker())));
+        operations.add(new Operation("GET /items/search", 10,
+                baseUrl -> get(baseUrl + "/items/search?from=0&size=20&text="
+                        + URLEncoder.encode("Вещь " + skewed(items), StandardCharsets.UTF_8), booker())));
+        operations.add(new Operation("GET /bookings", 20,
+                baseUrl -> get(baseUrl + "/bookings?state=ALL&from=0&size=20", booker())));
+        operations.add(new Operation("GET /bookings/owner", 15,
+                baseUrl -> get(baseUrl + "/bookings/owner?state=ALL&from=0&size=20", owner())));
+        operations.add(new Operation("GET /requests/all", 10,
+                baseUrl -> get(baseUrl + "/requests/all?from=0&size=20", booker())));
+        operations.add(new Operation("POST /bookings", 5, this::createBooking));
+        totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> arguments = parse(args);
+        LoadRunner runner = new LoadRunner(
+                Integer.parseInt(arguments.getOrDefault("users", "10000")),
+                Integer.parseInt(arguments.getOrDefault("owners", "500")),
+                Integer.parseInt(arguments.getOrDefault("items", "50000")));
+        int threads = Integer.parseInt(arguments.getOrDefault("threads", "16"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(arguments.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(arguments.getOrDefault("duration", "60")));
+
+        String gatewayUrl = arguments.getOrDefault("gateway", "http://localhost:8080");
+        String serverUrl = arguments.getOrDefault("server", "http://localhost:9090");
+
+        Map<String, Result> gateway = null;
+        Map<String, Result> server = null;
+        if (!gatewayUrl.isEmpty()) {
+            gateway = runner.run(gatewayUrl, threads, warmup, duration);
+            print("gateway", gateway, duration);
+        }
+        if (!serverUrl.isEmpty()) {
+            server = runner.run(serverUrl, threads, warmup, duration);
+            print("server", server, duration);
+        }
+        if (gateway != null && server != null) {
+            printOverhead(gateway, server);
+        }
+    }
+
+    /**
+     * Аргументы вида --ключ=значение
+     */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ожидается аргумент вида --ключ=значение: " + arg);
+            }
+            arguments.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return arguments;
+    }
+
+    /**
+     * Прогон нагрузки: сначала прогрев без записи результатов, затем замер
+     */
+    public Map<String, Result> run(String baseUrl, int threads, Duration warmup, Duration duration) throws InterruptedException {
+        drive(baseUrl, threads, warmup, null);
+        Map<String, Result> results = new LinkedHashMap<>();
+        operations.forEach(operation -> results.put(operation.name, new Result()));
+        drive(baseUrl, threads, duration, results);
+        return results;
+    }
+
+    private void drive(String baseUrl, int threads, Duration duration, Map<String, Result> results) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Operation operation = next();
+                    long started = System.nanoTime();
+                    int status;
+                    try {
+                        status = httpClient.send(operation.request.apply(baseUrl), HttpResponse.BodyHandlers.discarding())
+                                .statusCode();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    if (results != null) {
+                        results.get(operation.name).record(System.nanoTime() - started, status);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private Operation next() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private HttpRequest get(String url, long userId) {
+        return HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create(url))
+                .timeout(TIMEOUT)
+                .header(USER_HEADER, String.valueOf(userId))
+                .build();
+    }
+
+    private HttpRequest createBooking(String baseUrl) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + ThreadLocalRandom.current().nextInt(3650));
+        String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                skewed(items), start.withNano(0), start.plusHours(1 + ThreadLocalRandom.current().nextInt(72)).withNano(0));
+        return HttpRequest.newBuilder()
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .uri(URI.create(baseUrl + "/bookings"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header(USER_HEADER, String.valueOf(booker()))
+                .build();
+    }
+
+    private long owner() {
+        return skewed(owners);
+    }
+
+    private long booker() {
+        return ThreadLocalRandom.current().nextLong(owners + 1, users + 1);
+    }
+
+    /**
+     * Id от 1 до bound со степенным распределением, как в {@link DataSeeder}
+     */
+    private static long skewed(int bound) {
+        return Math.min(bound, (long) (bound * Math.pow(ThreadLocalRandom.current().nextDouble(), SKEW)) + 1);
+    }
+
+    private static void print(String target, Map<String, Result> results, Duration duration) {
+        System.out.printf("%n%s%n%-20s %10s %8s %10s %10s %10s %10s %10s%n", target,
+                "endpoint", "requests", "errors", "rps", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        results.forEach((name, result) -> {
+            Histogram histogram = result.latency;
+            System.out.printf("%-20s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", name,
+                    histogram.getTotalCount(), result.errors.sum(),
+                    histogram.getTotalCount() / (double) duration.toSeconds(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()));
+        });
+    }
+
+    private static void printOverhead(Map<String, Result> gateway, Map<String, Result> server) {
+        System.out.printf("%ngateway overhead%n%-20s %10s %10s%n", "endpoint", "p50 ms", "p99 ms");
+        gateway.forEach((name, result) -> {
+            Histogram direct = server.get(name).latency;
+            System.out.printf("%-20s %10.2f %10.2f%n", name,
+                    millis(result.latency.getValueAtPercentile(50) - direct.getValueAtPercentile(50)),
+                    millis(result.latency.getValueAtPercentile(99) - direct.getValueAtPercentile(99)));
+        });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Operation {
+        private final String name;
+        private final int weight;
+        private final Function<String, HttpRequest> request;
+
+        private Operation(String name, int weight, Function<String, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Задержки в наносекундах и количество ответов не 2xx
+     */
+    public static final class Result {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long nanos, int status) {
+            latency.recordValue(nanos);
+            if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ru.practicum.shareit.benchmarks.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Время запросов репозиториев сервера на данных {@link DataSeeder} без индексов миграции V2__indexes.sql и с ними.
+ * Индексы удаляются, запросы замеряются, затем индексы создаются тем же скриптом миграции и запросы замеряются снова.
+ * <p>
+ * Запуск: QueryTimer --url=jdbc:postgresql://localhost:5432/shareit --users=1000000 --owners=50000 --items=1000000
+ * --requests=100000 --iterations=200. Объёмы должны совпадать с переданными DataSeeder, например при --bookings=10000000.
+ */
+public class QueryTimer {
+
+    private static final String INDEXES = "db/migration/V2__indexes.sql";
+    private static final Pattern INDEX_NAME = Pattern.compile("CREATE INDEX IF NOT EXISTS (\\w+)");
+    private static final double SKEW = 3;
+    private static final long SEED = 42;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Function<Random, Object[]>> queries = new LinkedHashMap<>();
+    private final int users;
+    private final int owners;
+
+    public QueryTimer(JdbcTemplate jdbcTemplate, int users, int owners, int items, int requests) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.users = users;
+        this.owners = owners;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        queries.put("select b.id from bookings b join items i on i.id = b.item_id join users u on u.id = b.booker_id "
+                        + "where b.booker_id = ? order by b.start_date desc, b.id desc limit 20",
+                r -> new Object[]{booker(r)});
+        queries.put("select b.id from bookings b join items i on i.id = b.item_id join users u on u.id = b.booker_id "
+                        + "where b.booker_id = ? and b.status = 'WAITING' order by b.start_date desc, b.id desc limit 20",
+                r -> new Object[]{booker(r)});
+        queries.put("select b.id from bookings b join items i on i.id = b.item_id "
+                        + "where i.owner_id = ? order by b.start_date desc, b.id desc limit 20",
+                r -> new Object[]{skewed(r, owners)});
+        queries.put("select b.id from bookings b where b.item_id = ? and b.status = 'APPROVED' and b.start_date = "
+                        + "(select max(p.start_date) from bookings p where p.item_id = b.item_id "
+                        + "and p.status = 'APPROVED' and p.start_date < ?)",
+                r -> new Object[]{skewed(r, items), now});
+        queries.put("select b.start_date, b.end_date from bookings b where b.item_id = ? and b.status in ('WAITING', 'APPROVED')",
+                r -> new Object[]{skewed(r, items)});
+        queries.put("select b.id from bookings b where b.booker_id = ? and b.item_id = ? and b.status = 'APPROVED' "
+                        + "and b.end_date < ?",
+                r -> new Object[]{booker(r), skewed(r, items), now});
+        queries.put("select i.id from items i where i.owner_id = ? order by i.id limit 20",
+                r -> new Object[]{skewed(r, owners)});
+        queries.put("select i.id from items i where i.request_id = ?",
+                r -> new Object[]{(long) r.nextInt(Math.max(1, requests)) + 1});
+        queries.put("select c.id from comments c where c.item_id = ? order by c.created desc",
+                r -> new Object[]{skewed(r, items)});
+        queries.put("select r.id from requests r where r.requestor_id = ? order by r.created, r.id",
+                r -> new Object[]{booker(r)});
+        queries.put("select r.id from requests r where r.requestor_id <> ? order by r.created, r.id limit 20",
+                r -> new Object[]{booker(r)});
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> arguments = LoadRunner.parse(args);
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                arguments.getOrDefault("url", "jdbc:postgresql://localhost:5432/shareit"),
+                arguments.getOrDefault("user", "root"),
+                arguments.getOrDefault("password", "root"),
+                true);
+        try {
+            QueryTimer timer = new QueryTimer(new JdbcTemplate(dataSource),
+                    Integer.parseInt(arguments.getOrDefault("users", "10000")),
+                    Integer.parseInt(arguments.getOrDefault("owners", "500")),
+                    Integer.parseInt(arguments.getOrDefault("items", "50000")),
+                    Integer.parseInt(arguments.getOrDefault("requests", "5000")));
+            int iterations = Integer.parseInt(arguments.getOrDefault("iterations", "200"));
+            String script = readIndexes();
+
+            timer.dropIndexes(script);
+            Map<String, Histogram> before = timer.measure(iterations);
+            timer.createIndexes(script);
+            Map<String, Histogram> after = timer.measure(iterations);
+            print(before, after);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    /**
+     * Замер запросов: первые iterations / 10 выполнений - прогрев без записи результатов.
+     * Параметры каждого запроса генерируются с одного и того же зерна, поэтому замеры до и после
+     * создания индексов выполняют запросы с одинаковыми параметрами
+     *
+     * @return Задержки в наносекундах по запросам
+     */
+    public Map<String, Histogram> measure(int iterations) {
+        Map<String, Histogram> results = new LinkedHashMap<>();
+        queries.forEach((sql, parameters) -> {
+            Histogram histogram = new Histogram(3);
+            Random random = new Random(SEED);
+            for (int i = -iterations / 10; i < iterations; i++) {
+                Object[] values = parameters.apply(random);
+                long started = System.nanoTime();
+                jdbcTemplate.queryForList(sql, values);
+                if (i >= 0) {
+                    histogram.recordValue(System.nanoTime() - started);
+                }
+            }
+            results.put(sql, histogram);
+        });
+        return results;
+    }
+
+    public void dropIndexes(String script) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = INDEX_NAME.matcher(script);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        names.forEach(name -> jdbcTemplate.execute("drop index if exists " + name));
+        analyze();
+    }
+
+    public void createIndexes(String script) {
+        long started = System.nanoTime();
+        for (String statement : script.split(";")) {
+            String sql = statement.lines()
+                    .filter(line -> !line.startsWith("--"))
+                    .reduce("", (first, second) -> first + " " + second)
+                    .trim();
+            if (!sql.isEmpty()) {
+                jdbcTemplate.execute(sql);
+            }
+        }
+        analyze();
+        System.out.printf("Indexes created in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void analyze() {
+        for (String table : List.of("users", "items", "bookings", "comments", "requests")) {
+            jdbcTemplate.execute("analyze " + table);
+        }
+    }
+
+    private static String readIndexes() {
+        try {
+            return StreamUtils.copyToString(new ClassPathResource(INDEXES).getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Скрипт индексов не найден: " + INDEXES, e);
+        }
+    }
+
+    private static void print(Map<String, Histogram> before, Map<String, Histogram> after) {
+        System.out.printf("%n%10s %10s %10s %10s  %s%n", "p50 before", "p50 after", "p99 before", "p99 after", "query");
+        before.forEach((sql, histogram) -> System.out.printf("%10.2f %10.2f %10.2f %10.2f  %s%n",
+                millis(histogram.getValueAtPercentile(50)), millis(after.get(sql).getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)), millis(after.get(sql).getValueAtPercentile(99)), sql));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private long booker(Random random) {
+        return owners + 1 + random.nextInt(users - owners);
+    }
+
+    /**
+     * Id от 1 до bound со степенным распределением, как в {@link DataSeeder}
+     */
+    private static long skewed(Random random, int bound) {
+        return Math.min(bound, (long) (bound * Math.pow(random.nextDouble(), SKEW)) + 1);
+    }
+}
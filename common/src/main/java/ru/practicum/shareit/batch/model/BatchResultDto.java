@@ -0,0 +1,23 @@
+package ru.practicum.shareit.batch.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Результат пакетной операции для одного элемента: результат либо текст ошибки
+ */
+@Data
+@Builder
+public class BatchResultDto<T> {
+    private Long id;
+    private T result;
+    private String error;
+
+    public static <T> BatchResultDto<T> of(Long id, T result) {
+        return BatchResultDto.<T>builder().id(id).result(result).build();
+    }
+
+    public static <T> BatchResultDto<T> error(Long id, String error) {
+        return BatchResultDto.<T>builder().id(id).error(error).build();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking;
+
+public enum BookingEventType {
+    CREATED(BookingStatus.WAITING),
+    APPROVED(BookingStatus.APPROVED),
+    REJECTED(BookingStatus.REJECTED);
+
+    private final BookingStatus status;
+
+    BookingEventType(BookingStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Статус бронирования после события
+     */
+    public BookingStatus getStatus() {
+        return status;
+    }
+}
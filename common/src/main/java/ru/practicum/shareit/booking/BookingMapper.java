@@ -2,10 +2,16 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventDto;
 import ru.practicum.shareit.booking.model.BookingRequestDto;
 import ru.practicum.shareit.booking.model.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummaryDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSummaryDto;
 
 public class BookingMapper {
     private BookingMapper() {
@@ -30,8 +36,31 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
+                .item(ItemSummaryDto.builder()
+                        .id(booking.getItem().getId())
+                        .name(booking.getItem().getName())
+                        .build())
+                .booker(UserSummaryDto.builder()
+                        .id(booking.getBooker().getId())
+                        .name(booking.getBooker().getName())
+                        .build())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    public static BookingDto toDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStartDate())
+                .end(booking.getEndDate())
+                .item(ItemSummaryDto.builder()
+                        .id(booking.getItemId())
+                        .name(booking.getItemName())
+                        .build())
+                .booker(UserSummaryDto.builder()
+                        .id(booking.getBookerId())
+                        .name(booking.getBookerName())
+                        .build())
                 .status(booking.getStatus())
                 .build();
     }
@@ -45,4 +74,22 @@ public class BookingMapper {
                 .bookerId(booking.getBooker().getId())
                 .build();
     }
+
+    public static BookingShortDto toShortDto(ItemBookingView booking) {
+        return BookingShortDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
+    public static BookingEventDto toDto(BookingEvent event) {
+        return BookingEventDto.builder()
+                .id(event.getId())
+                .type(event.getType())
+                .bookingId(event.getBookingId())
+                .itemId(event.getItemId())
+                .status(event.getType().getStatus())
+                .created(event.getCreated())
+                .build();
+    }
 }
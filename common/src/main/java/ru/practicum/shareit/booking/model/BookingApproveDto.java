@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+public class BookingApproveDto {
+    @NotNull(message = "Id бронирования не может быть пустым")
+    private Long bookingId;
+    @NotNull(message = "Решение не может быть пустым")
+    private Boolean approved;
+}
@@ -3,8 +3,8 @@ package ru.practicum.shareit.booking.model;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.model.ItemSummaryDto;
+import ru.practicum.shareit.user.model.UserSummaryDto;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +14,7 @@ public class BookingDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
+    private ItemSummaryDto item;
+    private UserSummaryDto booker;
     private BookingStatus status;
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingEventType;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Событие жизненного цикла бронирования в таблице outbox.
+ * Записывается в транзакции изменения бронирования и удаляется после доставки слушателям.
+ * sequence - номер события в пределах вещи в порядке фиксации транзакций.
+ * Событие, не доставленное за допустимое число попыток, помечается dead и больше не доставляется.
+ */
+@Data
+@Builder
+@Entity
+@Table(name = "booking_events")
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_seq")
+    @SequenceGenerator(name = "booking_events_seq", sequenceName = "booking_events_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingEventType type;
+    @Column(nullable = false)
+    private LocalDateTime created;
+    @Column(name = "item_sequence", nullable = false)
+    private Long sequence;
+    @Column(nullable = false)
+    private int attempts;
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+    @Column(nullable = false)
+    private boolean dead;
+}
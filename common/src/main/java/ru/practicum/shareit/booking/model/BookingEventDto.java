@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.BookingEventType;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие бронирования для подписчиков, без служебных полей доставки outbox
+ */
+@Data
+@Builder
+public class BookingEventDto {
+    private Long id;
+    private BookingEventType type;
+    private Long bookingId;
+    private Long itemId;
+    private BookingStatus status;
+    private LocalDateTime created;
+}
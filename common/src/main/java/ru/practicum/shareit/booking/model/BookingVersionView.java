@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.model;
+
+public interface BookingVersionView {
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    long getVersion();
+
+    long getItemVersion();
+
+    long getBookerVersion();
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.model;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public interface BookingView {
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    BookingStatus getStatus();
+
+    Long getItemId();
+
+    String getItemName();
+
+    Long getBookerId();
+
+    String getBookerName();
+}
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.NestedExceptionUtils;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -12,17 +17,24 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import javax.validation.ConstraintViolationException;
 import java.util.Map;
 
+/**
+ * Ответы на ошибки. Каждая ошибка учитывается в счётчике shareit.errors с тегами exception и status.
+ */
 @Slf4j
+@RequiredArgsConstructor
 @RestControllerAdvice(basePackages = "ru.practicum.shareit")
 public class ErrorHandler {
 
     public static final String ERROR = "error";
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public Map<String, String> handleDataIntegrityViolationException(final DataIntegrityViolationException e) {
         String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
         log.warn(message);
+        count(e, HttpStatus.CONFLICT);
         return Map.of(ERROR, message);
     }
 
@@ -33,6 +45,7 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleException(final Exception e) {
         log.warn(e.getMessage());
+        count(e, HttpStatus.BAD_REQUEST);
         return Map.of(ERROR, e.getMessage());
     }
 
@@ -40,6 +53,32 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public Map<String, String> handleNotFound(final NotFound e) {
         log.warn(e.getMessage());
+        count(e, HttpStatus.NOT_FOUND);
+        return Map.of(ERROR, e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleServiceUnavailable(final ServiceUnavailable e) {
+        log.warn(e.getMessage());
+        count(e, HttpStatus.SERVICE_UNAVAILABLE);
         return Map.of(ERROR, e.getMessage());
     }
+
+    @ExceptionHandler
+    public ResponseEntity<Map<String, String>> handleTooManyRequests(final TooManyRequests e) {
+        log.warn(e.getMessage());
+        count(e, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of(ERROR, e.getMessage()));
+    }
+
+    private void count(Exception e, HttpStatus status) {
+        Counter.builder("shareit.errors")
+                .tag("exception", e.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
 }
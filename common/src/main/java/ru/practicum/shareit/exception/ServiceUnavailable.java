@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class ServiceUnavailable extends RuntimeException {
+    public ServiceUnavailable(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequests extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequests(long retryAfterSeconds) {
+        super("Превышен лимит запросов, повторите через " + retryAfterSeconds + " с");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
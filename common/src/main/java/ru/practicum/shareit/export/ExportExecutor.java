@@ -0,0 +1,152 @@
+package ru.practicum.shareit.export;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import ru.practicum.shareit.exception.ServiceUnavailable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Пул потоков, в котором пишутся потоковые выгрузки. Пул не заменяет исполнитель асинхронных ответов MVC:
+ * в нём выполняются только задачи {@link #submit(WebRequest, Callable)}, остальные асинхронные ответы (SSE, реактивные типы)
+ * идут через исполнитель по умолчанию.
+ * Число одновременных выгрузок ограничено размером пула: выгрузка допускается только при свободном месте,
+ * лишние отклоняются сразу {@link ServiceUnavailable} (503), до начала ответа, а не ждут в очереди.
+ * Очередь пула размером с пул нужна только для передачи задачи потоку, который уже освободил место,
+ * но ещё не вернулся в пул.
+ * <p>
+ * Метрики: число выполняющихся выгрузок shareit.exports.active и отказов shareit.exports.rejected.
+ */
+public class ExportExecutor {
+
+    private static final String ADMISSION_INTERCEPTOR = ExportExecutor.class.getName() + ".ADMISSION";
+
+    private final Semaphore permits;
+    private final ThreadPoolTaskExecutor taskExecutor;
+    private final Counter rejected;
+
+    /**
+     * @param maxExports Максимум одновременных выгрузок, он же размер пула
+     */
+    public ExportExecutor(int maxExports, MeterRegistry meterRegistry) {
+        if (maxExports < 1) {
+            throw new IllegalArgumentException("Число одновременных выгрузок должно быть положительным");
+        }
+        permits = new Semaphore(maxExports);
+        taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(maxExports);
+        taskExecutor.setMaxPoolSize(maxExports);
+        taskExecutor.setQueueCapacity(maxExports);
+        taskExecutor.setThreadNamePrefix("export-");
+        taskExecutor.initialize();
+        rejected = meterRegistry.counter("shareit.exports.rejected");
+        Gauge.builder("shareit.exports.active", permits, semaphore -> maxExports - semaphore.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Асинхронный ответ, который пишется в пуле выгрузок.
+     * Место занимается сразу и освобождается ровно один раз: после записи ответа, а если запись не началась -
+     * при тайм-ауте, ошибке или завершении асинхронной обработки запроса (клиент отключился, пул отклонил задачу).
+     * Задача, не начавшаяся до завершения запроса, уже не выполняется.
+     *
+     * @param request Текущий запрос
+     * @param export  Запись ответа, выполняется в потоке пула
+     * @throws ServiceUnavailable Выполняется максимум выгрузок
+     */
+    public WebAsyncTask<Void> submit(WebRequest request, Callable<Void> export) {
+        Admission admission = new Admission(acquire());
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ADMISSION_INTERCEPTOR, admission);
+        return new WebAsyncTask<>(null, taskExecutor, () -> admission.run(export));
+    }
+
+    /**
+     * Место для выгрузки. Освобождается вызывающим
+     *
+     * @throws ServiceUnavailable Выполняется максимум выгрузок
+     */
+    public Permit acquire() {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailable("Превышено число одновременных выгрузок");
+        }
+        return new Permit();
+    }
+
+    public void shutdown() {
+        taskExecutor.shutdown();
+    }
+
+    /**
+     * Место выгрузки, повторное освобождение ничего не делает
+     */
+    public final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Место выгрузки, занятое асинхронным ответом. Место освобождает тот, кто первым заберёт выгрузку:
+     * задача - после записи ответа, обратные вызовы асинхронной обработки - если задача ещё не началась.
+     * Результат асинхронной обработки обратные вызовы не меняют
+     */
+    private static final class Admission implements CallableProcessingInterceptor {
+        private final Permit permit;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Admission(Permit permit) {
+            this.permit = permit;
+        }
+
+        private Void run(Callable<Void> export) throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return export.call();
+            } finally {
+                permit.release();
+            }
+        }
+
+        private void abandon() {
+            if (claimed.compareAndSet(false, true)) {
+                permit.release();
+            }
+        }
+
+        @Override
+        public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+            abandon();
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+            abandon();
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            abandon();
+        }
+    }
+}
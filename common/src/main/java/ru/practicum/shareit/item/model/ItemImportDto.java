@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Итог загрузки вещей из NDJSON
+ */
+@Data
+@Builder
+public class ItemImportDto {
+    private Long imported;
+    private Integer chunks;
+}
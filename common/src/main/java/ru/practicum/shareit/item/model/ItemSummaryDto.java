@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ItemSummaryDto {
+    private Long id;
+    private String name;
+}
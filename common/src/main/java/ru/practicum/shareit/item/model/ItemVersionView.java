@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.model;
+
+public interface ItemVersionView {
+    Long getOwnerId();
+
+    long getVersion();
+
+    long getCommentCount();
+
+    Long getLastCommentId();
+
+    Long getCommentAuthorVersionSum();
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок в виде GCRA: состояние - одно теоретическое время прихода следующего запроса,
+ * изменяемое через compareAndSet.
+ * Корзина вмещает capacity токенов и пополняется со скоростью tokensPerSecond.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long emissionInterval;
+    private final long tolerance;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity        Размер корзины: количество запросов, допустимых подряд
+     * @param tokensPerSecond Скорость пополнения корзины
+     * @param now             Текущее время в наносекундах, корзина создаётся полной
+     */
+    public TokenBucket(long capacity, double tokensPerSecond, long now) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Размер корзины и скорость пополнения должны быть положительными");
+        }
+        this.emissionInterval = Math.max(1, (long) (NANOS_PER_SECOND / tokensPerSecond));
+        this.tolerance = emissionInterval * capacity;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Попытка взять токен
+     *
+     * @param now Текущее время в наносекундах, {@link System#nanoTime()}
+     * @return 0, если токен взят, иначе через сколько наносекунд появится токен
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival - now, 0) + emissionInterval;
+            if (next > tolerance) {
+                return next - tolerance;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, now + next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.request.model;
+
+public interface ItemRequestVersionView {
+    long getVersion();
+
+    long getItemCount();
+
+    Long getLastItemId();
+
+    Long getItemVersionSum();
+}
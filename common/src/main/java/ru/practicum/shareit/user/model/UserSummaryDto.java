@@ -0,0 +1,11 @@
+package ru.practicum.shareit.user.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserSummaryDto {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerRoute;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Стоимость ответа gateway для списка бронирований через WebClient и {@link BaseClient}:
+ * прежний разбор JSON в Object с повторной сериализацией, прежняя сборка тела в byte[]
+ * и текущая потоковая передача частей тела. Сервер заменён функцией обмена, отдающей тело частями по 8 КБ,
+ * ответ пишется в пустой поток, как его писал бы конвертер MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayPassthroughBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final String PATH = "?state={state}&from={from}&size={size}";
+    private static final Map<String, Object> PARAMETERS = Map.of("state", "ALL", "from", 0, "size", 10);
+
+    @Param({"10", "100", "1000"})
+    private int bookings;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private WebClient webClient;
+    private PassthroughClient client;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        List<Object> page = LongStream.rangeClosed(1, bookings)
+                .mapToObj(id -> Booking.builder().id(id).start(now.plusDays(id)).end(now.plusDays(id + 1))
+                        .item(Item.builder().id(id).name("Вещь " + id).description("Описание вещи " + id)
+                                .available(true).owner(owner).build())
+                        .booker(booker).status(BookingStatus.APPROVED).build())
+                .map(BookingMapper::toDto)
+                .collect(Collectors.toList());
+        byte[] serverResponse = objectMapper.writeValueAsBytes(page);
+        List<byte[]> chunks = new ArrayList<>();
+        for (int from = 0; from < serverResponse.length; from += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(serverResponse, from, Math.min(serverResponse.length, from + CHUNK_SIZE)));
+        }
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        webClient = WebClient.builder()
+                .baseUrl("http://server/bookings")
+                .exchangeFunction(server(chunks))
+                .build();
+        client = new PassthroughClient(webClient, new RequestCoalescer(meterRegistry),
+                new ServerRoute("bookings", CircuitBreaker.ofDefaults("bookings"), Bulkhead.ofDefaults("bookings"),
+                        meterRegistry));
+    }
+
+    @Benchmark
+    public byte[] reserialize() throws IOException {
+        Object body = webClient.get()
+                .uri(PATH, PARAMETERS)
+                .retrieve()
+                .bodyToMono(Object.class)
+                .block();
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] aggregate() {
+        return webClient.get()
+                .uri(PATH, PARAMETERS)
+                .retrieve()
+                .toEntity(byte[].class)
+                .map(ResponseEntity::getBody)
+                .block();
+    }
+
+    @Benchmark
+    public long passthrough() throws IOException {
+        ResponseEntity<Object> response = Objects.requireNonNull(client.list().block());
+        try (InputStream body = ((Resource) Objects.requireNonNull(response.getBody())).getInputStream()) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static ExchangeFunction server(List<byte[]> chunks) {
+        return request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(Flux.fromIterable(chunks).map(DefaultDataBufferFactory.sharedInstance::wrap))
+                .build());
+    }
+
+    private static final class PassthroughClient extends BaseClient {
+
+        private PassthroughClient(WebClient webClient, RequestCoalescer requestCoalescer, ServerRoute route) {
+            super(webClient, requestCoalescer, route);
+        }
+
+        private Mono<ResponseEntity<Object>> list() {
+            return get(PATH, 1L, PARAMETERS);
+        }
+    }
+}
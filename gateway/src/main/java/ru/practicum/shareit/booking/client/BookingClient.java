@@ -2,69 +2,118 @@ package ru.practicum.shareit.booking.client;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.model.BookingApproveDto;
 import ru.practicum.shareit.booking.model.BookingRequestDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerRoutes;
+import ru.practicum.shareit.client.ValidatorCache;
+import ru.practicum.shareit.export.ExportExecutor;
 
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
     private static final String UNSUPPORTED_STATUS = "Unknown state: UNSUPPORTED_STATUS";
+    private final WebClient exportWebClient;
+    private final WebClient streamWebClient;
+    private final ExportExecutor exportExecutor;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         RequestCoalescer requestCoalescer, ServerRoutes serverRoutes,
+                         @Qualifier("serverStreamWebClient") WebClient streamWebClient,
+                         ExportExecutor exportExecutor, ValidatorCache validatorCache) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).clone().filter(validatorCache).build(), requestCoalescer,
+                serverRoutes.get("bookings"));
+        this.exportWebClient = builder.build();
+        this.streamWebClient = streamWebClient;
+        this.exportExecutor = exportExecutor;
     }
 
-    public ResponseEntity<Object> create(BookingRequestDto bookingDto, Long userId) {
+    public Mono<ResponseEntity<Object>> create(BookingRequestDto bookingDto, Long userId) {
         log.info("Запрос POST: create(BookingInDto bookingDto, Long userId) на создание бронирования.");
         checkBeforeCreate(bookingDto);
         return post("", userId, bookingDto);
     }
 
-    public ResponseEntity<Object> approve(Long bookingId, Long userId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> approve(Long bookingId, Long userId, Boolean approved) {
         log.info("Запрос PATCH: approve(Long bookingId, Long userId, Boolean approved) на подтверждение или отклонение запроса на бронирование с ID = {}.", bookingId);
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> get(Long bookingId, Long userId) {
+    public Mono<ResponseEntity<Object>> approveAll(List<BookingApproveDto> decisions, Long userId) {
+        log.info("Запрос PATCH: approveAll(List<BookingApproveDto> decisions, Long userId) на пакетное подтверждение или отклонение {} бронирований.", decisions.size());
+        return patch("/approve", userId, decisions);
+    }
+
+    public Mono<ResponseEntity<Object>> getByIds(List<Long> ids, Long userId) {
+        log.info("Запрос GET: getByIds(List<Long> ids, Long userId) на пакетное получение бронирований {}.", ids);
+        Map<String, Object> parameters = Map.of("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        return get("?ids={ids}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> get(Long bookingId, Long userId, String fields) {
         log.info("Запрос GET: get(Long bookingId,Long userId) на получение бронирования с ID = {}.", bookingId);
-        return get("/" + bookingId, userId);
+        Map<String, Object> parameters = new HashMap<>();
+        return get(withFields("/" + bookingId, parameters, fields), userId, parameters);
     }
 
-    public ResponseEntity<Object> get(String state, Long userId, Integer from, Integer size) {
-        log.info("Запрос GET: get(String state,Long userId, Integer from, Integer size) на получение списка всех бронирований, постранично, текущего пользователя с ID = {}.", userId);
+    public Mono<ResponseEntity<Object>> get(String state, Long userId, Integer from, Integer size, String cursor, String fields) {
+        log.info("Запрос GET: get(String state,Long userId, Integer from, Integer size, String cursor) на получение списка всех бронирований, постранично, текущего пользователя с ID = {}.", userId);
         checkValidState(state);
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size,
-                "state", state);
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+                "state", state));
+        return get(withFields(withCursor("?state={state}&from={from}&size={size}", parameters, cursor), parameters, fields),
+                userId, parameters);
     }
 
-    public ResponseEntity<Object> getByOwner(String state, Long userId, Integer from, Integer size) {
-        log.info("Запрос GET: getByOwner(String state,Long userId, Integer from, Integer size) на получение списка бронирований, постранично, для всех вещей текущего пользователя с ID = {}.", userId);
+    public Mono<ResponseEntity<Object>> getByOwner(String state, Long userId, Integer from, Integer size, String cursor, String fields) {
+        log.info("Запрос GET: getByOwner(String state,Long userId, Integer from, Integer size, String cursor) на получение списка бронирований, постранично, для всех вещей текущего пользователя с ID = {}.", userId);
         checkValidState(state);
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size,
-                "state", state);
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+                "state", state));
+        return get(withFields(withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor), parameters, fields),
+                userId, parameters);
+    }
+
+    public WebAsyncTask<Void> export(String state, Long userId, WebRequest request, HttpServletResponse response) {
+        log.info("Запрос GET: export(String state, Long userId) на выгрузку всех бронирований пользователя с ID = {}.", userId);
+        checkValidState(state);
+        return exportExecutor.submit(request, stream(exportWebClient, response, "/export?state={state}", userId, Map.of("state", state)));
+    }
+
+    public WebAsyncTask<Void> exportByOwner(String state, Long userId, WebRequest request, HttpServletResponse response) {
+        log.info("Запрос GET: exportByOwner(String state, Long userId) на выгрузку всех бронирований вещей пользователя с ID = {}.", userId);
+        checkValidState(state);
+        return exportExecutor.submit(request, stream(exportWebClient, response, "/owner/export?state={state}", userId, Map.of("state", state)));
+    }
+
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> stream(Long userId) {
+        log.info("Запрос GET: stream(Long userId) на подписку на события бронирований пользователя с ID = {}.", userId);
+        return events(streamWebClient, API_PREFIX + "/stream", userId);
     }
 
     /**
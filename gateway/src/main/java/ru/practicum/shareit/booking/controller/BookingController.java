@@ -3,15 +3,26 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.model.BookingApproveDto;
 import ru.practicum.shareit.booking.model.BookingRequestDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 
 @RestController
@@ -21,41 +32,81 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class BookingController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final String FIELDS = "[\\w.]+(,[\\w.]+)*";
     private final BookingClient bookingClient;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
-    public ResponseEntity<Object> create(@RequestBody @Valid BookingRequestDto bookingDto,
-                                         @RequestHeader(USER_ID) Long userId) {
+    public Mono<ResponseEntity<Object>> create(@RequestBody @Valid BookingRequestDto bookingDto,
+                                               @RequestHeader(USER_ID) Long userId) {
         return bookingClient.create(bookingDto, userId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approve(@PathVariable Long bookingId,
-                                          @RequestParam Boolean approved,
-                                          @RequestHeader(USER_ID) Long userId) {
+    public Mono<ResponseEntity<Object>> approve(@PathVariable Long bookingId,
+                                                @RequestParam Boolean approved,
+                                                @RequestHeader(USER_ID) Long userId) {
         return bookingClient.approve(bookingId, userId, approved);
     }
 
+    @PatchMapping("/approve")
+    public Mono<ResponseEntity<Object>> approveAll(@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid BookingApproveDto> decisions,
+                                                   @RequestHeader(USER_ID) Long userId) {
+        return bookingClient.approveAll(decisions, userId);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> get(@PathVariable Long bookingId,
-                                      @RequestHeader(USER_ID) Long userId) {
-        return bookingClient.get(bookingId, userId);
+    public Mono<ResponseEntity<Object>> get(@PathVariable Long bookingId,
+                                            @RequestHeader(USER_ID) Long userId,
+                                            @RequestParam(required = false) @Pattern(regexp = FIELDS) String fields) {
+        return bookingClient.get(bookingId, userId, fields);
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<Object>> getByIds(@RequestParam @Size(min = 1, max = MAX_BATCH_SIZE) List<Long> ids,
+                                                 @RequestHeader(USER_ID) Long userId) {
+        return bookingClient.getByIds(ids, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> get(@RequestParam(defaultValue = "ALL") String state,
-                                      @RequestHeader(USER_ID) Long userId,
-                                      @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                      @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return bookingClient.get(state, userId, from, size);
+    public Mono<ResponseEntity<Object>> get(@RequestParam(defaultValue = "ALL") String state,
+                                            @RequestHeader(USER_ID) Long userId,
+                                            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                            @RequestParam(defaultValue = "10") @Positive Integer size,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) @Pattern(regexp = FIELDS) String fields) {
+        return bookingClient.get(state, userId, from, size, cursor, fields);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getByOwner(@RequestParam(defaultValue = "ALL") String state,
-                                             @RequestHeader(USER_ID) Long userId,
-                                             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                             @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return bookingClient.getByOwner(state, userId, from, size);
+    public Mono<ResponseEntity<Object>> getByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                                   @RequestHeader(USER_ID) Long userId,
+                                                   @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                   @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) @Pattern(regexp = FIELDS) String fields) {
+        return bookingClient.getByOwner(state, userId, from, size, cursor, fields);
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(@RequestParam(defaultValue = "ALL") String state,
+                                     @RequestHeader(USER_ID) Long userId,
+                                     WebRequest request,
+                                     HttpServletResponse response) {
+        return bookingClient.export(state, userId, request, response);
+    }
+
+    @GetMapping("/owner/export")
+    public WebAsyncTask<Void> exportByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                            @RequestHeader(USER_ID) Long userId,
+                                            WebRequest request,
+                                            HttpServletResponse response) {
+        return bookingClient.exportByOwner(state, userId, request, response);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> stream(@RequestHeader(USER_ID) Long userId) {
+        return bookingClient.stream(userId);
     }
 }
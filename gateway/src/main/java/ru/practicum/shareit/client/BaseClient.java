@@ -1,108 +1,334 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.*;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.NotFound;
+import ru.practicum.shareit.exception.ServiceUnavailable;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
+/**
+ * Неблокирующий клиент сервера. Все клиенты используют общий пул соединений из {@link ServerClientConfig}.
+ * Одновременные одинаковые GET-запросы объединяются в один вызов сервера через {@link RequestCoalescer},
+ * вызовы каждого клиента изолированы своим {@link ServerRoute}.
+ */
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final WebClient webClient;
+    private final RequestCoalescer requestCoalescer;
+    private final ServerRoute route;
+
+    public BaseClient(WebClient webClient, RequestCoalescer requestCoalescer, ServerRoute route) {
+        this.webClient = webClient;
+        this.requestCoalescer = requestCoalescer;
+        this.route = route;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    /**
+     * Ответ сервера передаётся клиенту как есть: тело байтами без разбора JSON, заголовки - кроме hop-by-hop.
+     * Тело не собирается в память целиком: части копируются из буферов соединения по мере получения
+     */
+    private static Mono<ResponseEntity<Flux<byte[]>>> passthrough(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(entity -> ResponseEntity.status(entity.getStatusCode())
+                        .headers(passthroughHeaders(entity.getHeaders()))
+                        .body(entity.getBody() == null ? Flux.<byte[]>empty() : entity.getBody()
+                                .map(BaseClient::read)
+                                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)));
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    /**
+     * Тело пишется клиенту конвертером ресурсов MVC в потоке обработки ответа, без пула асинхронных ответов.
+     * Поток ждёт части тела от сервера, ограничения описаны в {@link ChunkedInputStream}
+     */
+    private static ResponseEntity<Object> toGatewayResponse(ResponseEntity<Flux<byte[]>> response) {
+        Flux<byte[]> body = Objects.requireNonNull(response.getBody());
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(new InputStreamResource(new ChunkedInputStream(body)));
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    /**
+     * Ответ, общий для объединённых запросов: каждый из них читает тело с начала
+     */
+    private static ResponseEntity<Flux<byte[]>> shared(ResponseEntity<Flux<byte[]>> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(Objects.requireNonNull(response.getBody()).cache());
+    }
+
+    private static byte[] read(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
         }
+    }
 
-        return responseBuilder.build();
+    private static HttpHeaders passthroughHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * Потоковая передача ответа сервера: тело пишется клиенту частями по мере получения, без буферизации.
+     * Запросы не объединяются, ответ не кэшируется. Сервер вызывается при выполнении задачи,
+     * задача блокируется до конца записи и должна выполняться в пуле выгрузок.
+     *
+     * @param exportClient Клиент без {@link ValidatorCache}, чтобы тело не собиралось в память
+     * @param response     Ответ клиенту
+     * @throws ServiceUnavailable Сервер недоступен, до начала записи ответа
+     */
+    protected Callable<Void> stream(WebClient exportClient, HttpServletResponse response, String path, long userId,
+                                    Map<String, Object> parameters) {
+        HttpHeaders requestHeaders = defaultHeaders(userId);
+        requestHeaders.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        Mono<ResponseEntity<Flux<DataBuffer>>> call = route.protect(exportClient.get()
+                .uri(path, parameters)
+                .headers(headers -> headers.addAll(requestHeaders))
+                .retrieve()
+                .onStatus(status -> true, serverResponse -> Mono.empty())
+                .toEntityFlux(DataBuffer.class), HttpMethod.GET, path, (String) parameters.get("state"));
+        return () -> {
+            ResponseEntity<Flux<DataBuffer>> entity = Objects.requireNonNull(call.block());
+            response.setStatus(entity.getStatusCodeValue());
+            passthroughHeaders(entity.getHeaders()).forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (entity.getBody() != null) {
+                write(entity.getBody(), response.getOutputStream());
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Проксирование потока событий сервера (SSE): события передаются клиенту по мере получения, данные - без разбора.
+     * Подписка использует отдельный пул соединений и не занимает bulkhead маршрута.
+     *
+     * @param streamClient Клиент пула подписок
+     * @throws NotFound           Пользователь не найден
+     * @throws ServiceUnavailable Сервер отклонил подписку
+     */
+    protected Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> events(WebClient streamClient, String path, long userId) {
+        HttpHeaders requestHeaders = defaultHeaders(userId);
+        requestHeaders.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+        return streamClient.get()
+                .uri(path)
+                .headers(headers -> headers.addAll(requestHeaders))
+                .retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.just(response.statusCode() == HttpStatus.NOT_FOUND
+                        ? new NotFound("пользователь", userId)
+                        : new ServiceUnavailable("Поток событий недоступен: " + response.statusCode())))
+                .toEntityFlux(EVENT_TYPE)
+                .map(entity -> ResponseEntity.status(entity.getStatusCode()).body(entity.getBody()));
+    }
+
+    /**
+     * Тело пишется в потоке пула выгрузок; при обрыве соединения клиента подписка отменяется,
+     * полученные и не записанные буферы освобождаются
+     */
+    private static void write(Flux<DataBuffer> body, OutputStream out) throws IOException {
+        try (Stream<DataBuffer> buffers = body.doOnDiscard(DataBuffer.class, DataBufferUtils::release).toStream()) {
+            Iterator<DataBuffer> iterator = buffers.iterator();
+            while (iterator.hasNext()) {
+                out.write(read(iterator.next()));
+                out.flush();
+            }
+        }
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    /**
+     * Потоковая передача NDJSON: строки отправляются серверу по мере чтения, запросы не объединяются.
+     * Ошибка чтения или проверки строки прерывает вызов и возвращается как есть, а не как ошибка соединения с сервером,
+     * поэтому IllegalArgumentException отвечает 400 и не учитывается выключателем маршрута.
+     *
+     * @param lines Строки NDJSON, каждая с переводом строки в конце
+     */
+    protected Mono<ResponseEntity<Object>> postLines(String path, long userId, Flux<String> lines) {
+        HttpHeaders requestHeaders = defaultHeaders(userId);
+        requestHeaders.setContentType(MediaType.APPLICATION_NDJSON);
+        AtomicReference<Throwable> linesError = new AtomicReference<>();
+        WebClient.RequestHeadersSpec<?> exchange = webClient.post()
+                .uri(path)
+                .headers(headers -> headers.addAll(requestHeaders))
+                .body(lines.doOnError(linesError::set), String.class);
+        Mono<ResponseEntity<Flux<byte[]>>> call = passthrough(exchange)
+                .onErrorMap(e -> linesError.get() != null, e -> linesError.get());
+        return route.protect(call, HttpMethod.POST, path, null)
+                .map(BaseClient::toGatewayResponse);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Добавление курсора следующей страницы к запросу
+     *
+     * @param path       Путь с параметрами запроса
+     * @param parameters Изменяемые параметры запроса
+     * @param cursor     Курсор, может быть null
+     * @return Путь с курсором, если он указан
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        if (cursor == null) {
+            return path;
+        }
+        parameters.put("cursor", cursor);
+        return path + "&cursor={cursor}";
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+    /**
+     * Добавление списка полей разреженного ответа к запросу
+     *
+     * @param path       Путь, возможно с параметрами запроса
+     * @param parameters Изменяемые параметры запроса
+     * @param fields     Поля через запятую, может быть null
+     * @return Путь с полями, если они указаны
+     */
+    protected static String withFields(String path, Map<String, Object> parameters, @Nullable String fields) {
+        if (fields == null) {
+            return path;
+        }
+        parameters.put("fields", fields);
+        return path + (path.contains("?") ? "&" : "?") + "fields={fields}";
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        Map<String, Object> uriVariables = parameters != null ? parameters : Map.of();
+        HttpHeaders requestHeaders = defaultHeaders(userId);
+        String ifNoneMatch = HttpMethod.GET.equals(method) ? clientHeader(HttpHeaders.IF_NONE_MATCH) : null;
+        if (ifNoneMatch != null) {
+            requestHeaders.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, uriVariables)
+                .headers(headers -> headers.addAll(requestHeaders));
+
+        WebClient.RequestHeadersSpec<?> exchange = body != null ? request.bodyValue(body) : request;
+        String state = parameters != null ? (String) parameters.get("state") : null;
+        Mono<ResponseEntity<Flux<byte[]>>> response = route.protect(passthrough(exchange), method, path, state);
+        if (!HttpMethod.GET.equals(method)) {
+            return response.map(BaseClient::toGatewayResponse);
+        }
+        return requestCoalescer.coalesce(coalescingKey(path, uriVariables, requestHeaders), () -> response.map(BaseClient::shared))
+                .map(BaseClient::toGatewayResponse);
+    }
+
+    /**
+     * Ключ GET-запроса: клиент, путь с подставленными параметрами и заголовки, с которыми запрос уходит на сервер.
+     * Id пользователя входит в ключ, только если {@link #defaultHeaders(Long)} передаёт его серверу.
+     */
+    private String coalescingKey(String path, Map<String, Object> uriVariables, HttpHeaders requestHeaders) {
+        return String.join(" ", HttpMethod.GET.name(), getClass().getName(),
+                UriComponentsBuilder.fromUriString(path).buildAndExpand(uriVariables).toUriString(),
+                String.valueOf(requestHeaders.getFirst(USER_ID)),
+                String.valueOf(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH)));
+    }
+
+    /**
+     * Заголовок входящего запроса клиента, читается в потоке обработки запроса
+     */
+    @Nullable
+    private static String clientHeader(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return ((ServletRequestAttributes) attributes).getRequest().getHeader(name);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -110,7 +336,7 @@ public class BaseClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            headers.set(USER_ID, String.valueOf(userId));
         }
         return headers;
     }
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.client;
+
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Тело ответа сервера в виде InputStream для записи клиенту в потоке обработки ответа.
+ * Подписка на тело начинается при первом чтении, части читаются по мере получения;
+ * закрытие до конца тела отменяет подписку.
+ * <p>
+ * Чтение блокирует поток обработки ответа MVC, пока не придёт следующая часть. Поток занят на всё время передачи тела,
+ * а не только на время записи, и ожидание каждой части ограничено shareit-server.response-timeout.
+ * Это допустимо для ответов API (страницы ограниченного размера, сервер отдаёт их без пауз), но не для долгих ответов:
+ * выгрузки пишутся в отдельном пуле ({@link BaseClient#stream}), а потоки событий возвращаются как Flux
+ * ({@link BaseClient#events}). Вернуть Flux частей тела для обычных ответов нельзя: MVC пишет через конвертеры
+ * без буферизации только потоковые типы (SSE, NDJSON), а Flux остальных типов собирает в список.
+ */
+final class ChunkedInputStream extends InputStream {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int PREFETCH = 16;
+
+    private final Flux<byte[]> chunks;
+    private Stream<byte[]> stream;
+    private Iterator<byte[]> iterator;
+    private byte[] chunk = EMPTY;
+    private int position;
+
+    ChunkedInputStream(Flux<byte[]> chunks) {
+        this.chunks = chunks;
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - position;
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private boolean fill() {
+        if (iterator == null) {
+            stream = chunks.toStream(PREFETCH);
+            iterator = stream.iterator();
+        }
+        while (position == chunk.length) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            chunk = iterator.next();
+            position = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.export.ExportExecutor;
+
+/**
+ * Выгрузки бронирований пишутся клиенту в отдельном ограниченном пуле, остальные асинхронные ответы MVC
+ * (потоки событий, реактивные ответы) - в общем applicationTaskExecutor. Лишние выгрузки отклоняются до вызова сервера.
+ */
+@Configuration
+public class ExportConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExportExecutor exportExecutor(@Value("${shareit-gateway.export.max-concurrent:16}") int maxConcurrent, MeterRegistry meterRegistry) {
+        return new ExportExecutor(maxConcurrent, meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых GET-запросов к серверу: пока запрос с ключом выполняется,
+ * остальные запросы с тем же ключом получают его ответ без отдельного вызова сервера.
+ * Ответ не хранится после завершения запроса.
+ * <p>
+ * Метрики: gateway.coalescing.requests с тегом result (upstream - вызов сервера, coalesced - ответ другого запроса)
+ * и доля объединённых запросов gateway.coalescing.ratio.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstream;
+    private final Counter coalesced;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        upstream = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "upstream")
+                .register(meterRegistry);
+        coalesced = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.ratio", this, RequestCoalescer::ratio)
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param key     Ключ запроса: метод, адрес с параметрами и заголовки, от которых зависит ответ;
+     *                запросы с одним ключом возвращают ответ одного типа
+     * @param request Вызов сервера, выполняется только если запроса с таким ключом нет в работе
+     * @return Ответ сервера, общий для всех одновременных запросов с ключом
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<ResponseEntity<T>> coalesce(String key, Supplier<Mono<ResponseEntity<T>>> request) {
+        return Mono.defer(() -> {
+            Flight<T> flight = (Flight<T>) inFlight.get(key);
+            if (flight != null) {
+                coalesced.increment();
+                return flight.response;
+            }
+            Flight<T> created = new Flight<>(key, request);
+            flight = (Flight<T>) inFlight.putIfAbsent(key, created);
+            if (flight != null) {
+                coalesced.increment();
+                return flight.response;
+            }
+            upstream.increment();
+            return created.response;
+        });
+    }
+
+    private double ratio() {
+        double total = upstream.count() + coalesced.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    private final class Flight<T> {
+        private final Mono<ResponseEntity<T>> response;
+
+        private Flight(String key, Supplier<Mono<ResponseEntity<T>>> request) {
+            response = Mono.defer(request)
+                    .doFinally(signal -> inFlight.remove(key, this))
+                    .cache();
+        }
+    }
+}
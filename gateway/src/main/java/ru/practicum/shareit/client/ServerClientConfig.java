@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Общий пул соединений gateway с сервером.
+ * Коннектор применяется ко всем {@code WebClient.Builder}, из которых строятся клиенты; кэш ETag ({@link ValidatorCache})
+ * клиенты подключают сами только к запросам с обычным ответом, без подписок на события и выгрузок.
+ * Долгие подписки на события (SSE) используют отдельный пул без таймаута ответа, чтобы не занимать соединения запросов.
+ */
+@Configuration
+public class ServerClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(
+            @Value("${shareit-server.pool.max-connections:500}") int maxConnections,
+            @Value("${shareit-server.pool.pending-acquire-max-count:5000}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.pool.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${shareit-server.pool.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ReactorClientHttpConnector serverClientHttpConnector(
+            ConnectionProvider serverConnectionProvider,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.response-timeout:10s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverStreamConnectionProvider(
+            @Value("${shareit-server.stream-pool.max-connections:50000}") int maxConnections) {
+        return ConnectionProvider.builder("shareit-server-stream")
+                .maxConnections(maxConnections)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient serverStreamWebClient(
+            WebClient.Builder builder,
+            ConnectionProvider serverStreamConnectionProvider,
+            @Value("${shareit-server.url}") String serverUrl,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout) {
+        HttpClient httpClient = HttpClient.create(serverStreamConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(serverUrl)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import ru.practicum.shareit.exception.ServiceUnavailable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Изоляция вызовов сервера одного клиента: ограничение одновременных вызовов (bulkhead)
+ * и автоматический выключатель (circuit breaker). Ответы 5xx считаются ошибками выключателя,
+ * но передаются клиенту как есть. Ошибки проверки запроса в gateway (IllegalArgumentException) выключателем
+ * не учитываются (resilience4j.circuitbreaker.configs.default.ignore-exceptions).
+ * Отказ без вызова сервера возвращается как {@link ServiceUnavailable}.
+ * <p>
+ * Время вызова сервера пишется в таймер gateway.upstream с тегами route, method, endpoint
+ * (путь без параметров, числовые Id заменены на {id}), state и outcome.
+ */
+public class ServerRoute {
+
+    private static final Pattern ID = Pattern.compile("/\\d+");
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServerRoute(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param call   Вызов сервера
+     * @param method Метод запроса
+     * @param path   Путь запроса относительно адреса клиента
+     * @param state  Состояние бронирования для списков бронирований, может быть null
+     * @return Ответ сервера
+     */
+    public <T> Mono<ResponseEntity<T>> protect(Mono<ResponseEntity<T>> call, HttpMethod method, String path,
+                                               @Nullable String state) {
+        String endpoint = toEndpoint(path);
+        return Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    return call.doFinally(signal -> timer(method, endpoint, state, signal)
+                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+                })
+                .flatMap(response -> response.getStatusCode().is5xxServerError()
+                        ? Mono.error(new ServerError(response))
+                        : Mono.just(response))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(ServerError.class, e -> Mono.just(e.response()))
+                .onErrorMap(CallNotPermittedException.class,
+                        e -> new ServiceUnavailable("Сервер недоступен для " + circuitBreaker.getName()))
+                .onErrorMap(BulkheadFullException.class,
+                        e -> new ServiceUnavailable("Превышено число одновременных запросов к " + bulkhead.getName()));
+    }
+
+    private Timer timer(HttpMethod method, String endpoint, @Nullable String state, SignalType signal) {
+        String outcome = signal == SignalType.ON_COMPLETE ? "success" : signal == SignalType.ON_ERROR ? "error" : "cancel";
+        String key = method.name() + ' ' + endpoint + ' ' + state + ' ' + outcome;
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(key, ignored -> Timer.builder("gateway.upstream")
+                .tag("route", name)
+                .tag("method", method.name())
+                .tag("endpoint", endpoint)
+                .tag("state", state == null ? "none" : state)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String toEndpoint(String path) {
+        int query = path.indexOf('?');
+        String endpoint = ID.matcher(query < 0 ? path : path.substring(0, query)).replaceAll("/{id}");
+        return endpoint.isEmpty() ? "/" : endpoint;
+    }
+
+    /**
+     * Ответ 5xx сервера, передаётся через выключатель как ошибка
+     */
+    private static final class ServerError extends RuntimeException {
+        private final transient ResponseEntity<?> response;
+
+        private ServerError(ResponseEntity<?> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> ResponseEntity<T> response() {
+            return (ResponseEntity<T>) response;
+        }
+    }
+}
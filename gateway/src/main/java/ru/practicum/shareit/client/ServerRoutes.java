@@ -0,0 +1,25 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Маршруты к серверу по клиентам. Настройки выключателя и bulkhead маршрута задаются в
+ * resilience4j.circuitbreaker.instances.{имя} и resilience4j.bulkhead.instances.{имя}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServerRoutes {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public ServerRoute get(String name) {
+        return new ServerRoute(name, circuitBreakerRegistry.circuitBreaker(name), bulkheadRegistry.bulkhead(name),
+                meterRegistry);
+    }
+}
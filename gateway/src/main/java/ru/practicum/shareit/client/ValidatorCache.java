@@ -0,0 +1,137 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Кэш последних ответов сервера с ETag по пользователю и адресу запроса.
+ * GET-запрос без собственного If-None-Match клиента отправляется на сервер с сохранённым ETag:
+ * на 304 клиенту возвращается сохранённый ответ, на 200 с ETag ответ сохраняется.
+ * Размер кэша ограничен суммарным объёмом тел ответов. Сохраняемое тело собирается в память целиком,
+ * поэтому фильтр подключается только к клиентам запросов с обычным ответом; потоковые ответы
+ * (text/event-stream, NDJSON) пропускаются без изменений.
+ * Ответы, возвращённые из кэша после 304, учитываются в счётчике gateway.validators.not-modified.
+ */
+@Component
+@RequiredArgsConstructor
+public class ValidatorCache implements ExchangeFilterFunction {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final List<MediaType> STREAMING = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final MeterRegistry meterRegistry;
+    private Cache<String, Entry> responses;
+    private Counter notModified;
+
+    @Value("${shareit-server.validator-cache.maximum-weight:16MB}")
+    private DataSize maximumWeight;
+
+    @Value("${shareit-server.validator-cache.expire-after-access:5m}")
+    private Duration expireAfterAccess;
+
+    @PostConstruct
+    public void init() {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .<String, Entry>weigher((key, entry) -> key.length() + entry.body.length)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway.validators");
+        notModified = meterRegistry.counter("gateway.validators.not-modified");
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!HttpMethod.GET.equals(request.method()) || request.headers().containsKey(HttpHeaders.IF_NONE_MATCH)
+                || isStreaming(request.headers().getAccept())) {
+            return next.exchange(request);
+        }
+        String key = request.headers().getFirst(USER_ID) + " " + request.url();
+        Entry cached = responses.getIfPresent(key);
+        ClientRequest conditional = cached == null ? request : ClientRequest.from(request)
+                .headers(headers -> headers.setIfNoneMatch(cached.eTag))
+                .build();
+        return next.exchange(conditional).map(response -> {
+            if (cached != null && response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                notModified.increment();
+                return response.mutate()
+                        .statusCode(HttpStatus.OK)
+                        .headers(headers -> {
+                            headers.clear();
+                            headers.addAll(cached.headers);
+                        })
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(cached.body)))
+                        .build();
+            }
+            String eTag = response.headers().asHttpHeaders().getETag();
+            MediaType contentType = response.headers().contentType().orElse(null);
+            if (response.statusCode() != HttpStatus.OK || eTag == null
+                    || contentType != null && isStreaming(List.of(contentType))) {
+                responses.invalidate(key);
+                return response;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(response.headers().asHttpHeaders());
+            return response.mutate()
+                    .body(body -> DataBufferUtils.join(body)
+                            .map(joined -> {
+                                byte[] bytes = read(joined);
+                                responses.put(key, new Entry(eTag, headers, bytes));
+                                return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+                            })
+                            .flux())
+                    .build();
+        });
+    }
+
+    private static boolean isStreaming(List<MediaType> mediaTypes) {
+        return mediaTypes.stream().anyMatch(mediaType -> STREAMING.stream().anyMatch(mediaType::equalsTypeAndSubtype));
+    }
+
+    private static byte[] read(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static final class Entry {
+        private final String eTag;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private Entry(String eTag, HttpHeaders headers, byte[] body) {
+            this.eTag = eTag;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -3,17 +3,22 @@ package ru.practicum.shareit.item.client;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerRoutes;
+import ru.practicum.shareit.client.ValidatorCache;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.ItemDto;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -21,56 +26,64 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      RequestCoalescer requestCoalescer, ServerRoutes serverRoutes,
+                      ValidatorCache validatorCache) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).filter(validatorCache).build(), requestCoalescer, serverRoutes.get("items"));
     }
 
-    public ResponseEntity<Object> create(ItemDto itemDto, Long userId) {
+    public Mono<ResponseEntity<Object>> create(ItemDto itemDto, Long userId) {
         log.info("Запрос POST: create(ItemDto itemDto, Long userId) на создание вещи.");
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> update(ItemDto itemDto, Long itemId, Long userId) {
+    public Mono<ResponseEntity<Object>> importItems(Flux<String> lines, Long userId) {
+        log.info("Запрос POST: importItems(Long userId) на загрузку вещей владельца с ID = {}.", userId);
+        return postLines("/import", userId, lines);
+    }
+
+    public Mono<ResponseEntity<Object>> update(ItemDto itemDto, Long itemId, Long userId) {
         log.info("Запрос PATCH: update(ItemDto itemDto, Long userId) на обновление вещи с ID = {}.", itemId);
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> get(long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> get(long itemId, long userId) {
         log.info("Запрос GET: get(Long itemId, Long userId) на получение вещи с ID = {}.", itemId);
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
-        log.info("Запрос GET: getAll(Long userId,Integer from, Integer size) на получение всех вещей постранично.");
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getByIds(List<Long> ids, Long userId) {
+        log.info("Запрос GET: getByIds(List<Long> ids, Long userId) на пакетное получение вещей {}.", ids);
+        Map<String, Object> parameters = Map.of("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        return get("?ids={ids}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getAll(Long userId, Integer from, Integer size, String cursor) {
+        log.info("Запрос GET: getAll(Long userId,Integer from, Integer size, String cursor) на получение всех вещей постранично.");
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
-                "size", size);
-        return get("?from={from}&size={size}", userId, parameters);
+                "size", size));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> find(String text, Integer from, Integer size) {
-        log.info("Запрос GET: find(String text, Integer from, Integer size) на получение всех вещей, постранично, содержащих '{}' в названии или описании.", text);
+    public Mono<ResponseEntity<Object>> find(String text, Integer from, Integer size, String cursor) {
+        log.info("Запрос GET: find(String text, Integer from, Integer size, String cursor) на получение всех вещей, постранично, содержащих '{}' в названии или описании.", text);
         if (text.isBlank()) {
-            return ResponseEntity.ok().body(List.of());
+            return Mono.just(ResponseEntity.ok().body(List.of()));
         }
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
-                "size", size);
-        return get("/search?text={text}&size={size}&from={from}", null, parameters);
+                "size", size));
+        return get(withCursor("/search?text={text}&size={size}&from={from}", parameters, cursor), null, parameters);
     }
 
-    public void delete(Long itemId, Long userId) {
+    public Mono<Void> delete(Long itemId, Long userId) {
         log.info("Запрос DELETE: delete(Long itemId, Long userId) на удаление вещи по ID = {}.", itemId);
-        delete("/" + itemId, userId);
+        return delete("/" + itemId, userId).then();
     }
 
-    public ResponseEntity<Object> createComment(CommentDto commentDto, Long itemId, Long userId) {
+    public Mono<ResponseEntity<Object>> createComment(CommentDto commentDto, Long itemId, Long userId) {
         log.info("Запрос POST: createComment(CommentDto commentDto, Long itemId, Long userId) на добавление комментария к вещи по ID = {}.", itemId);
         return post("/" + itemId + "/comment", userId, commentDto);
     }
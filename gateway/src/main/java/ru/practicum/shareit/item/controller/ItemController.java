@@ -1,19 +1,35 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.marker.Marker;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/items")
@@ -22,56 +38,112 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class ItemController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final int MAX_BATCH_SIZE = 100;
     private final ItemClient itemClient;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
     @Validated({Marker.OnCreate.class})
-    public ResponseEntity<Object> create(@RequestHeader(USER_ID) Long userId,
-                                         @Valid
-                                         @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestHeader(USER_ID) Long userId,
+                                               @Valid
+                                               @RequestBody ItemDto itemDto) {
 
         return itemClient.create(itemDto, userId);
     }
 
+    /**
+     * Загрузка вещей из NDJSON: строки проверяются и передаются серверу по мере чтения, без буферизации тела
+     */
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public Mono<ResponseEntity<Object>> importItems(@RequestHeader(USER_ID) Long userId,
+                                                    HttpServletRequest request) {
+        Flux<String> lines = Flux.using(
+                        () -> new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)),
+                        reader -> Flux.fromStream(reader.lines()),
+                        reader -> {
+                            try {
+                                reader.close();
+                            } catch (IOException ignored) {
+                                // Поток запроса закрывает контейнер
+                            }
+                        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> validateLine(line.getT1() + 1, line.getT2()));
+        return itemClient.importItems(lines, userId);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader(USER_ID) Long userId,
-                                         @RequestBody ItemDto itemDto,
-                                         @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> update(@RequestHeader(USER_ID) Long userId,
+                                               @RequestBody ItemDto itemDto,
+                                               @PathVariable Long itemId) {
         return itemClient.update(itemDto, itemId, userId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> get(@PathVariable Long itemId,
-                                      @RequestHeader(USER_ID) Long userId) {
+    public Mono<ResponseEntity<Object>> get(@PathVariable Long itemId,
+                                            @RequestHeader(USER_ID) Long userId) {
         return itemClient.get(itemId, userId);
     }
 
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<Object>> getByIds(@RequestParam @Size(min = 1, max = MAX_BATCH_SIZE) List<Long> ids,
+                                                 @RequestHeader(USER_ID) Long userId) {
+        return itemClient.getByIds(ids, userId);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getAll(@RequestHeader(USER_ID) Long userId,
-                                         @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                         @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return itemClient.getAll(userId, from, size);
+    public Mono<ResponseEntity<Object>> getAll(@RequestHeader(USER_ID) Long userId,
+                                               @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                               @RequestParam(defaultValue = "10") @Positive Integer size,
+                                               @RequestParam(required = false) String cursor) {
+        return itemClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> find(@RequestParam String text,
-                                       @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                       @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return itemClient.find(text, from, size);
+    public Mono<ResponseEntity<Object>> find(@RequestParam String text,
+                                             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                             @RequestParam(defaultValue = "10") @Positive Integer size,
+                                             @RequestParam(required = false) String cursor) {
+        return itemClient.find(text, from, size, cursor);
     }
 
     @DeleteMapping("/{itemId}")
-    public void delete(@RequestHeader(USER_ID) Long userId,
-                       @PathVariable Long itemId) {
-        itemClient.delete(itemId, userId);
+    public Mono<Void> delete(@RequestHeader(USER_ID) Long userId,
+                             @PathVariable Long itemId) {
+        return itemClient.delete(itemId, userId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestHeader(USER_ID) Long userId,
-                                                @Valid @RequestBody CommentDto commentDto,
-                                                @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> createComment(@RequestHeader(USER_ID) Long userId,
+                                                      @Valid @RequestBody CommentDto commentDto,
+                                                      @PathVariable Long itemId) {
 
         return itemClient.createComment(commentDto, itemId, userId);
     }
+
+    /**
+     * Проверка строки NDJSON по правилам создания вещи
+     *
+     * @return Строка в компактном виде с переводом строки
+     * @throws IllegalArgumentException Некорректная строка, в сообщении - номер строки
+     */
+    private String validateLine(long number, String line) {
+        try {
+            ItemDto itemDto = objectMapper.readValue(line, ItemDto.class);
+            Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Marker.OnCreate.class);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Строка %d: %s", number, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", "))));
+            }
+            return objectMapper.writeValueAsString(itemDto) + "\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(String.format("Строка %d: %s", number, e.getOriginalMessage()));
+        }
+    }
 }
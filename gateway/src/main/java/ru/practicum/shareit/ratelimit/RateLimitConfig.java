@@ -0,0 +1,43 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Группы эндпоинтов с отдельными лимитами: bookings, items, search, requests.
+ * Лимиты групп задаются в shareit-gateway.rate-limit.groups.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit-gateway.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitConfig(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiter = new RateLimiter(properties, meterRegistry);
+    }
+
+    @Bean
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, "bookings"))
+                .addPathPatterns("/bookings", "/bookings/**");
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, "search"))
+                .addPathPatterns("/items/search");
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, "items"))
+                .addPathPatterns("/items", "/items/**")
+                .excludePathPatterns("/items/search");
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, "requests"))
+                .addPathPatterns("/requests", "/requests/**");
+    }
+}
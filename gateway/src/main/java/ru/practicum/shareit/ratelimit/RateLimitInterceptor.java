@@ -0,0 +1,34 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Проверка лимита до вызова контроллера, а значит и до запроса к серверу.
+ * Пользователь определяется заголовком X-Sharer-User-Id, без заголовка - адресом клиента.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    private final RateLimiter rateLimiter;
+    private final String group;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, String group) {
+        this.rateLimiter = rateLimiter;
+        this.group = group;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String userId = request.getHeader(USER_ID);
+        rateLimiter.acquire(group, userId != null ? userId : request.getRemoteAddr());
+        return true;
+    }
+}
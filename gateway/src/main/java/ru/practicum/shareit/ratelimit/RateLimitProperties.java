@@ -0,0 +1,28 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки ограничения частоты запросов по группам эндпоинтов.
+ * Группа без настроек не ограничивается.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long maximumUsers = 100_000;
+    private Duration expireAfterAccess = Duration.ofMinutes(10);
+    private Map<String, Limit> groups = new HashMap<>();
+
+    @Data
+    public static class Limit {
+        private long capacity = 20;
+        private double tokensPerSecond = 10;
+    }
+}
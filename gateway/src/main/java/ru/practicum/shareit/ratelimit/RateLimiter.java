@@ -0,0 +1,74 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.exception.TooManyRequests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Корзины токенов по пользователям отдельно для каждой группы эндпоинтов.
+ * Количество корзин в группе ограничено, неиспользуемые корзины вытесняются.
+ * Отказы учитываются в счётчике gateway.rate-limit.rejected с тегом group.
+ */
+@Slf4j
+public class RateLimiter {
+
+    private final Map<String, Group> groups = new HashMap<>();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        properties.getGroups().forEach((name, limit) -> {
+            Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumUsers())
+                    .expireAfterAccess(properties.getExpireAfterAccess())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, buckets, "gateway.rate-limit." + name);
+            Counter rejected = Counter.builder("gateway.rate-limit.rejected")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            groups.put(name, new Group(limit, buckets, rejected));
+            log.info("Ограничение запросов группы {}: корзина {}, пополнение {} в секунду", name,
+                    limit.getCapacity(), limit.getTokensPerSecond());
+        });
+    }
+
+    /**
+     * Списание токена из корзины пользователя
+     *
+     * @param group Группа эндпоинтов
+     * @param key   Пользователь
+     * @throws TooManyRequests Корзина пуста
+     */
+    public void acquire(String group, String key) {
+        Group limited = groups.get(group);
+        if (limited == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = limited.buckets.get(key, ignored -> new TokenBucket(limited.limit.getCapacity(),
+                limited.limit.getTokensPerSecond(), now)).tryAcquire(now);
+        if (wait > 0) {
+            limited.rejected.increment();
+            throw new TooManyRequests(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    private static final class Group {
+        private final RateLimitProperties.Limit limit;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter rejected;
+
+        private Group(RateLimitProperties.Limit limit, Cache<String, TokenBucket> buckets, Counter rejected) {
+            this.limit = limit;
+            this.buckets = buckets;
+            this.rejected = rejected;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.marker.Marker;
 import ru.practicum.shareit.request.client.ItemRequestClient;
 import ru.practicum.shareit.request.model.ItemRequestDto;
@@ -26,28 +27,29 @@ public class ItemRequestController {
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
     @Validated({Marker.OnCreate.class})
-    public ResponseEntity<Object> create(@RequestHeader(USER_ID) Long userId,
-                                         @Valid
-                                         @RequestBody ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestHeader(USER_ID) Long userId,
+                                               @Valid
+                                               @RequestBody ItemRequestDto itemRequestDto) {
         return itemRequestClient.create(itemRequestDto, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> get(@RequestHeader(USER_ID) Long userId) {
+    public Mono<ResponseEntity<Object>> get(@RequestHeader(USER_ID) Long userId) {
         return itemRequestClient.get(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> get(@RequestHeader(USER_ID) Long userId,
-                                      @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                      @RequestParam(defaultValue = "10") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> get(@RequestHeader(USER_ID) Long userId,
+                                            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                            @RequestParam(defaultValue = "10") @Positive Integer size,
+                                            @RequestParam(required = false) String cursor) {
 
-        return itemRequestClient.get(userId, from, size);
+        return itemRequestClient.get(userId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> get(@RequestHeader(USER_ID) Long userId,
-                                      @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> get(@RequestHeader(USER_ID) Long userId,
+                                            @PathVariable Long requestId) {
 
         return itemRequestClient.get(userId, requestId);
     }
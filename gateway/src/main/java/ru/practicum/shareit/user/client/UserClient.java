@@ -3,12 +3,14 @@ package ru.practicum.shareit.user.client;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerRoutes;
+import ru.practicum.shareit.client.ValidatorCache;
 import ru.practicum.shareit.user.model.UserDto;
 
 @Service
@@ -17,37 +19,34 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      RequestCoalescer requestCoalescer, ServerRoutes serverRoutes,
+                      ValidatorCache validatorCache) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).filter(validatorCache).build(), requestCoalescer, serverRoutes.get("users"));
     }
 
-    public ResponseEntity<Object> create(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(UserDto userDto) {
         log.info("Запрос POST: create(UserDto userDto) на создание пользователя.");
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> update(Long userId, UserDto userDto) {
+    public Mono<ResponseEntity<Object>> update(Long userId, UserDto userDto) {
         log.info("Запрос PATCH: update(Long userId, UserDto userDto) на обновление пользователя с ID = {}.", userId);
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> get(long userId) {
+    public Mono<ResponseEntity<Object>> get(long userId) {
         log.info("Запрос GET: get(Long userId) на получение пользователя по ID = {}.", userId);
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> get() {
+    public Mono<ResponseEntity<Object>> get() {
         log.info("Запрос GET: get() на получение всех пользователей.");
         return get("");
     }
 
-    public void delete(long userId) {
+    public Mono<Void> delete(long userId) {
         log.info("Запрос DELETE: delete(Long userId) на удаление пользователя по ID = {}.", userId);
-        delete("/" + userId);
+        return delete("/" + userId).then();
     }
 }
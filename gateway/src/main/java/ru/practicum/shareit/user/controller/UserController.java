@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.marker.Marker;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.model.UserDto;
@@ -23,31 +24,31 @@ public class UserController {
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
     @Validated({Marker.OnCreate.class})
-    public ResponseEntity<Object> create(@Valid
-                                         @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(@Valid
+                                               @RequestBody UserDto userDto) {
         return userClient.create(userDto);
     }
 
     @Validated({Marker.OnUpdate.class})
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@Valid
-                                         @RequestBody UserDto userDto,
-                                         @PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> update(@Valid
+                                               @RequestBody UserDto userDto,
+                                               @PathVariable Long userId) {
         return userClient.update(userId, userDto);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> get(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> get(@PathVariable Long userId) {
         return userClient.get(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> get() {
+    public Mono<ResponseEntity<Object>> get() {
         return userClient.get();
     }
 
     @DeleteMapping("/{userId}")
-    public void delete(@PathVariable Long userId) {
-        userClient.delete(userId);
+    public Mono<Void> delete(@PathVariable Long userId) {
+        return userClient.delete(userId);
     }
 }
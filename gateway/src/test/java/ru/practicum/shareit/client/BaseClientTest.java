@@ -0,0 +1,92 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BaseClientTest {
+
+    private static final String FIRST = "[{\"id\":1},";
+    private static final String SECOND = "{\"id\":2}]";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final TestClient client = new TestClient(WebClient.builder()
+            .baseUrl("http://server/items")
+            .exchangeFunction(request -> Mono.delay(Duration.ofMillis(100))
+                    .map(ignored -> {
+                        calls.incrementAndGet();
+                        return ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .header("X-Next-Cursor", "next")
+                                .body(Flux.just(FIRST, SECOND)
+                                        .map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8))))
+                                .build();
+                    }))
+            .build());
+
+    @Test
+    void bodyIsPassedThroughInParts() throws IOException {
+        ResponseEntity<Object> response = client.remove("/1").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals(FIRST + SECOND, read(response));
+    }
+
+    @Test
+    void coalescedRequestsReadWholeBody() throws IOException {
+        List<ResponseEntity<Object>> responses = Flux.merge(client.fetch("/1"), client.fetch("/1")).collectList().block();
+
+        assertEquals(1, calls.get());
+        assertEquals(2, responses.size());
+        for (ResponseEntity<Object> response : responses) {
+            assertEquals(FIRST + SECOND, read(response));
+        }
+    }
+
+    private static String read(ResponseEntity<Object> response) throws IOException {
+        try (InputStream body = ((Resource) Objects.requireNonNull(response.getBody())).getInputStream()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private final class TestClient extends BaseClient {
+
+        private TestClient(WebClient webClient) {
+            super(webClient, new RequestCoalescer(meterRegistry), new ServerRoute("items", CircuitBreaker.ofDefaults("items"),
+                    Bulkhead.ofDefaults("items"), meterRegistry));
+        }
+
+        private Mono<ResponseEntity<Object>> fetch(String path) {
+            return get(path, 1L, Map.of());
+        }
+
+        private Mono<ResponseEntity<Object>> remove(String path) {
+            return delete(path, 1L);
+        }
+    }
+}
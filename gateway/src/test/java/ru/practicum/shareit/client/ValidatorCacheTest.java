@@ -0,0 +1,95 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ValidatorCacheTest {
+
+    private static final String ETAG = "\"1\"";
+
+    private final ValidatorCache validatorCache = new ValidatorCache(new SimpleMeterRegistry());
+    private final List<String> ifNoneMatch = new ArrayList<>();
+    private MediaType contentType;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(validatorCache, "maximumWeight", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(validatorCache, "expireAfterAccess", Duration.ofMinutes(5));
+        validatorCache.init();
+    }
+
+    @Test
+    void jsonResponseIsRevalidated() {
+        contentType = MediaType.APPLICATION_JSON;
+
+        assertEquals("[1][2]", fetch(MediaType.APPLICATION_JSON));
+        assertEquals("[1][2]", fetch(MediaType.APPLICATION_JSON));
+
+        assertNull(ifNoneMatch.get(0));
+        assertEquals(ETAG, ifNoneMatch.get(1));
+    }
+
+    @Test
+    void streamedResponseIsNotCached() {
+        contentType = MediaType.APPLICATION_NDJSON;
+
+        fetch(MediaType.APPLICATION_JSON);
+        fetch(MediaType.APPLICATION_JSON);
+
+        assertNull(ifNoneMatch.get(1));
+    }
+
+    @Test
+    void eventStreamRequestIsPassedThrough() {
+        contentType = MediaType.APPLICATION_JSON;
+
+        fetch(MediaType.TEXT_EVENT_STREAM);
+        fetch(MediaType.TEXT_EVENT_STREAM);
+
+        assertNull(ifNoneMatch.get(1));
+    }
+
+    private String fetch(MediaType accept) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    ifNoneMatch.add(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+                    if (ETAG.equals(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                        return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+                    }
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, contentType.toString())
+                            .header(HttpHeaders.ETAG, ETAG)
+                            .body(Flux.just("[1]", "[2]")
+                                    .map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8))))
+                            .build());
+                })
+                .filter(validatorCache)
+                .build()
+                .get()
+                .uri("http://server/items/1")
+                .header("X-Sharer-User-Id", "1")
+                .accept(accept)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.item.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerRoutes;
+import ru.practicum.shareit.client.ValidatorCache;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.item.model.ItemDto;
+
+import javax.validation.Validator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemImportTest {
+
+    private static final long USER_ID = 1L;
+    private static final String VALID_LINE = "{\"name\":\"Дрель\",\"description\":\"Ударная дрель\",\"available\":true}\n";
+    private static final String OTHER_LINE = "{\"name\":\"Пила\",\"description\":\"Ручная пила\",\"available\":false}\n";
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private ServerRoutes serverRoutes;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private ValidatorCache validatorCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("items");
+        circuitBreaker.reset();
+    }
+
+    @Test
+    void validLinesAreStreamedToServer() throws Exception {
+        List<String> upstreamBodies = new ArrayList<>();
+        ItemController controller = controller(request -> {
+            MockClientHttpRequest upstream = new MockClientHttpRequest(request.method(), request.url());
+            return request.writeTo(upstream, ExchangeStrategies.withDefaults())
+                    .then(upstream.getBodyAsString())
+                    .map(body -> {
+                        upstreamBodies.add(body);
+                        return ClientResponse.create(HttpStatus.CREATED)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body("[]")
+                                .build();
+                    });
+        });
+
+        ResponseEntity<Object> response = controller.importItems(USER_ID, request(VALID_LINE + "\n" + OTHER_LINE)).block();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, upstreamBodies.size());
+        String[] lines = upstreamBodies.get(0).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Дрель", objectMapper.readValue(lines[0], ItemDto.class).getName());
+        assertEquals("Пила", objectMapper.readValue(lines[1], ItemDto.class).getName());
+    }
+
+    @Test
+    void invalidLinesAreRejectedWithoutOpeningCircuitBreaker() {
+        ItemController controller = controller(HttpStatus.CREATED);
+        int calls = circuitBreaker.getCircuitBreakerConfig().getMinimumNumberOfCalls() * 2;
+
+        for (int i = 0; i < calls; i++) {
+            Mono<ResponseEntity<Object>> response = controller.importItems(USER_ID, request(VALID_LINE + "не JSON\n"));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, response::block);
+            assertTrue(e.getMessage().startsWith("Строка 2:"), e.getMessage());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void serverErrorsAreStillCounted() {
+        ItemController controller = controller(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        ResponseEntity<Object> response = controller.importItems(USER_ID, request(VALID_LINE)).block();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    private ItemController controller(HttpStatus status) {
+        return controller(server(status));
+    }
+
+    private ItemController controller(ExchangeFunction server) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(server);
+        ItemClient itemClient = new ItemClient("http://server", builder, requestCoalescer, serverRoutes, validatorCache);
+        return new ItemController(itemClient, objectMapper, validator);
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/items/import");
+        request.setContentType("application/x-ndjson");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /**
+     * Сервер читает всё тело запроса; ошибки записи тела оборачиваются, как это делает WebClient
+     */
+    private static ExchangeFunction server(HttpStatus status) {
+        return request -> {
+            MockClientHttpRequest upstream = new MockClientHttpRequest(request.method(), request.url());
+            return request.writeTo(upstream, ExchangeStrategies.withDefaults())
+                    .then(Mono.fromSupplier(() -> ClientResponse.create(status)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("[]")
+                            .build()))
+                    .onErrorMap(e -> !(e instanceof WebClientException),
+                            e -> new WebClientRequestException(e, request.method(), request.url(), request.headers()));
+        };
+    }
+}
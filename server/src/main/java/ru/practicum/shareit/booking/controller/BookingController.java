@@ -1,14 +1,32 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.batch.model.BatchResultDto;
+import ru.practicum.shareit.booking.model.BookingApproveDto;
 import ru.practicum.shareit.booking.model.BookingDto;
 import ru.practicum.shareit.booking.model.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingEventStream;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.export.ExportExecutor;
+import ru.practicum.shareit.fields.SparseFieldsAdvice;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 @RestController
@@ -17,7 +35,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final String NDJSON = "application/x-ndjson";
     private final BookingService bookingService;
+    private final BookingEventStream bookingEventStream;
+    private final ObjectMapper objectMapper;
+    private final ExportExecutor exportExecutor;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -35,28 +57,100 @@ public class BookingController {
         return bookingService.approve(bookingId, userId, approved);
     }
 
+    @PatchMapping("/approve")
+    public List<BatchResultDto<BookingDto>> approveAll(@RequestBody List<BookingApproveDto> decisions,
+                                                       @RequestHeader(USER_ID) Long userId) {
+        log.info("Запрос PATCH: approveAll(List<BookingApproveDto> decisions, Long userId) на пакетное подтверждение или отклонение {} бронирований.", decisions.size());
+        return bookingService.approveAll(decisions, userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto get(@PathVariable Long bookingId,
-                          @RequestHeader(USER_ID) Long userId) {
+                          @RequestHeader(USER_ID) Long userId,
+                          @RequestParam(name = SparseFieldsAdvice.FIELDS, required = false) String fields,
+                          WebRequest request) {
         log.info("Запрос GET: get(Long bookingId,Long userId) на получение бронирования с ID = {}.", bookingId);
+        String eTag = bookingService.getETag(bookingId, userId);
+        if (request.checkNotModified(fields == null ? eTag : EntityTags.of(eTag, fields))) {
+            return null;
+        }
         return bookingService.get(bookingId, userId);
     }
 
+    @GetMapping(params = "ids")
+    public List<BatchResultDto<BookingDto>> getByIds(@RequestParam List<Long> ids,
+                                                     @RequestHeader(USER_ID) Long userId) {
+        log.info("Запрос GET: getByIds(List<Long> ids, Long userId) на пакетное получение бронирований {}.", ids);
+        return bookingService.getByIds(ids, userId);
+    }
+
     @GetMapping
-    public List<BookingDto> get(@RequestParam(defaultValue = "ALL") String state,
-                                @RequestHeader(USER_ID) Long userId,
-                                @RequestParam(defaultValue = "0") Integer from,
-                                @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запрос GET: get(Long bookingId,Long userId, Integer from, Integer size) на получение списка всех бронирований, постранично, текущего пользователя с ID = {}.", userId);
-        return bookingService.get(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> get(@RequestParam(defaultValue = "ALL") String state,
+                                                @RequestHeader(USER_ID) Long userId,
+                                                @RequestParam(defaultValue = "0") Integer from,
+                                                @RequestParam(defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) String cursor) {
+        log.info("Запрос GET: get(Long bookingId,Long userId, Integer from, Integer size, String cursor) на получение списка всех бронирований, постранично, текущего пользователя с ID = {}.", userId);
+        return PageCursor.toResponse(bookingService.get(state, userId, from, size, cursor), size,
+                booking -> PageCursor.encode(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getByOwner(@RequestParam(defaultValue = "ALL") String state,
-                                       @RequestHeader(USER_ID) Long userId,
-                                       @RequestParam(defaultValue = "0") Integer from,
-                                       @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запрос GET: getByOwner(Long bookingId,Long userId, Integer from, Integer size) на получение списка бронирований, постранично, для всех вещей текущего пользователя с ID = {}.", userId);
-        return bookingService.getByOwner(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                                       @RequestHeader(USER_ID) Long userId,
+                                                       @RequestParam(defaultValue = "0") Integer from,
+                                                       @RequestParam(defaultValue = "10") Integer size,
+                                                       @RequestParam(required = false) String cursor) {
+        log.info("Запрос GET: getByOwner(Long bookingId,Long userId, Integer from, Integer size, String cursor) на получение списка бронирований, постранично, для всех вещей текущего пользователя с ID = {}.", userId);
+        return PageCursor.toResponse(bookingService.getByOwner(state, userId, from, size, cursor), size,
+                booking -> PageCursor.encode(booking.getStart(), booking.getId()));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public WebAsyncTask<Void> export(@RequestParam(defaultValue = "ALL") String state,
+                                     @RequestHeader(USER_ID) Long userId,
+                                     WebRequest request,
+                                     HttpServletResponse response) {
+        log.info("Запрос GET: export(String state, Long userId) на выгрузку всех бронирований пользователя с ID = {}.", userId);
+        bookingService.checkExport(state, userId);
+        return exportExecutor.submit(request, () -> writeLines(response,
+                out -> bookingService.export(state, userId, booking -> writeLine(out, booking))));
+    }
+
+    @GetMapping(value = "/owner/export", produces = NDJSON)
+    public WebAsyncTask<Void> exportByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                            @RequestHeader(USER_ID) Long userId,
+                                            WebRequest request,
+                                            HttpServletResponse response) {
+        log.info("Запрос GET: exportByOwner(String state, Long userId) на выгрузку всех бронирований вещей пользователя с ID = {}.", userId);
+        bookingService.checkExport(state, userId);
+        return exportExecutor.submit(request, () -> writeLines(response,
+                out -> bookingService.exportByOwner(state, userId, booking -> writeLine(out, booking))));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(USER_ID) Long userId) {
+        log.info("Запрос GET: stream(Long userId) на подписку на события бронирований пользователя с ID = {}.", userId);
+        return bookingEventStream.subscribe(userId);
+    }
+
+    /**
+     * Запись выгрузки в ответ, выполняется в пуле выгрузок
+     */
+    private Void writeLines(HttpServletResponse response, Consumer<OutputStream> export) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        export.accept(out);
+        out.flush();
+        return null;
+    }
+
+    private void writeLine(OutputStream out, BookingDto booking) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(booking));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
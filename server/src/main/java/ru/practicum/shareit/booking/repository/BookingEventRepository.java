@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+
+    /**
+     * События к доставке: по вещам в порядке номеров, без вещей, доставка которых отложена после ошибки.
+     * Страница содержит начало очереди каждой попавшей в неё вещи.
+     * Чтение в транзакции на запись: outbox читается с основной БД, а не с реплики,
+     * чтобы не доставлять повторно события, уже удалённые после доставки
+     */
+    @Transactional
+    @Query("select e from BookingEvent e where e.dead = false and not exists " +
+            "(select p.id from BookingEvent p where p.itemId = e.itemId and p.dead = false and p.nextAttemptAt > :now) " +
+            "order by e.itemId, e.sequence")
+    List<BookingEvent> findDeliverable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Блокировка строки вещи до конца транзакции. Транзакции, записывающие события одной вещи,
+     * выдают номера по очереди, поэтому номера растут в порядке фиксации
+     */
+    @Query(value = "select id from items where id = :itemId for update", nativeQuery = true)
+    Long lockItem(@Param("itemId") Long itemId);
+
+    @Query("select coalesce(max(e.sequence), 0) from BookingEvent e where e.itemId = :itemId")
+    long findLastSequence(@Param("itemId") Long itemId);
+}
@@ -1,40 +1,202 @@
 package ru.practicum.shareit.booking.repository;
 
-
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingVersionView;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findAllByBookerId(Long bookerId, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfter(Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerId(Long bookerId, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(Long bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndEndIsBefore(Long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Pageable pageable);
+    String DETAILS = "Booking.details";
+    String VIEW = "select b.id as id, b.start as startDate, b.end as endDate, b.status as status, " +
+            "i.id as itemId, i.name as itemName, u.id as bookerId, u.name as bookerName " +
+            "from Booking b join b.item i join b.booker u ";
+    String BY_BOOKER = VIEW + "where b.booker.id = :userId ";
+    String BY_OWNER = VIEW + "where i.owner.id = :userId ";
+    String BEFORE_CURSOR = "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) ";
+    String ORDER_BY_START = "order by b.start desc, b.id desc";
+    String EXPORT_FETCH_SIZE = "500";
 
-    List<Booking> findAllByItemOwnerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+    @Override
+    @EntityGraph(DETAILS)
+    Optional<Booking> findById(Long id);
 
     List<Booking> findAllByBookerIdAndItemIdAndStatusAndEndBefore(Long userId, Long itemId, BookingStatus status, LocalDateTime end);
 
-    List<Booking> findAllByItemInAndStatus(List<Item> items, BookingStatus status);
+    @Query("select b.item.id as itemId, b.id as id, b.booker.id as bookerId from Booking b " +
+            "where b.item.id in :itemIds and b.status = :status and b.start = " +
+            "(select max(p.start) from Booking p where p.item.id = b.item.id and p.status = :status and p.start < :now)")
+    List<ItemBookingView> findLastByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("status") BookingStatus status,
+                                             @Param("now") LocalDateTime now);
+
+    @Query("select b.item.id as itemId, b.id as id, b.booker.id as bookerId from Booking b " +
+            "where b.item.id in :itemIds and b.status = :status and b.start = " +
+            "(select min(n.start) from Booking n where n.item.id = b.item.id and n.status = :status and n.start > :now)")
+    List<ItemBookingView> findNextByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("status") BookingStatus status,
+                                             @Param("now") LocalDateTime now);
+
+    @EntityGraph(DETAILS)
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    @Query("select u.id as bookerId, i.owner.id as ownerId, b.version as version, i.version as itemVersion, " +
+            "u.version as bookerVersion from Booking b join b.item i join b.booker u where b.id = :bookingId")
+    Optional<BookingVersionView> findVersionById(@Param("bookingId") Long bookingId);
+
+    List<BookingInterval> findAllByItemIdAndStatusIn(Long itemId, Collection<BookingStatus> statuses);
+
+    @Query("select b.item.id as itemId, b.id as id, b.booker.id as bookerId from Booking b " +
+            "where b.booker.id = :bookerId and b.status in :statuses")
+    List<ItemBookingView> findItemBookingsByBookerIdAndStatusIn(@Param("bookerId") Long bookerId,
+                                                                @Param("statuses") Collection<BookingStatus> statuses);
+
+    @Query(BY_BOOKER + "and b.status in :statuses " + ORDER_BY_START)
+    List<BookingView> findViewsByBookerIdAndStatusIn(@Param("userId") Long userId,
+                                                     @Param("statuses") Collection<BookingStatus> statuses,
+                                                     Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.start < :now and b.end > :now " + ORDER_BY_START)
+    List<BookingView> findCurrentViewsByBookerId(@Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.end < :now " + ORDER_BY_START)
+    List<BookingView> findPastViewsByBookerId(@Param("userId") Long userId,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.start > :now " + ORDER_BY_START)
+    List<BookingView> findFutureViewsByBookerId(@Param("userId") Long userId,
+                                                @Param("now") LocalDateTime now,
+                                                Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.status in :statuses " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findViewPageByBookerIdAndStatusIn(@Param("userId") Long userId,
+                                                        @Param("statuses") Collection<BookingStatus> statuses,
+                                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                                        @Param("cursorId") Long cursorId,
+                                                        Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.start < :now and b.end > :now " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findCurrentViewPageByBookerId(@Param("userId") Long userId,
+                                                    @Param("now") LocalDateTime now,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.end < :now " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findPastViewPageByBookerId(@Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable pageable);
+
+    @Query(BY_BOOKER + "and b.start > :now " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findFutureViewPageByBookerId(@Param("userId") Long userId,
+                                                   @Param("now") LocalDateTime now,
+                                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + "and b.status in :statuses " + ORDER_BY_START)
+    Stream<BookingView> streamByBookerIdAndStatusIn(@Param("userId") Long userId,
+                                                    @Param("statuses") Collection<BookingStatus> statuses);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + "and b.start < :now and b.end > :now " + ORDER_BY_START)
+    Stream<BookingView> streamCurrentByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + "and b.end < :now " + ORDER_BY_START)
+    Stream<BookingView> streamPastByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_BOOKER + "and b.start > :now " + ORDER_BY_START)
+    Stream<BookingView> streamFutureByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query(BY_OWNER + "and b.status in :statuses " + ORDER_BY_START)
+    List<BookingView> findViewsByItemOwnerIdAndStatusIn(@Param("userId") Long userId,
+                                                        @Param("statuses") Collection<BookingStatus> statuses,
+                                                        Pageable pageable);
+
+    @Query(BY_OWNER + "and b.start < :now and b.end > :now " + ORDER_BY_START)
+    List<BookingView> findCurrentViewsByItemOwnerId(@Param("userId") Long userId,
+                                                    @Param("now") LocalDateTime now,
+                                                    Pageable pageable);
+
+    @Query(BY_OWNER + "and b.end < :now " + ORDER_BY_START)
+    List<BookingView> findPastViewsByItemOwnerId(@Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable pageable);
+
+    @Query(BY_OWNER + "and b.start > :now " + ORDER_BY_START)
+    List<BookingView> findFutureViewsByItemOwnerId(@Param("userId") Long userId,
+                                                   @Param("now") LocalDateTime now,
+                                                   Pageable pageable);
+
+    @Query(BY_OWNER + "and b.status in :statuses " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findViewPageByItemOwnerIdAndStatusIn(@Param("userId") Long userId,
+                                                           @Param("statuses") Collection<BookingStatus> statuses,
+                                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                                           @Param("cursorId") Long cursorId,
+                                                           Pageable pageable);
+
+    @Query(BY_OWNER + "and b.start < :now and b.end > :now " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findCurrentViewPageByItemOwnerId(@Param("userId") Long userId,
+                                                       @Param("now") LocalDateTime now,
+                                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
+
+    @Query(BY_OWNER + "and b.end < :now " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findPastViewPageByItemOwnerId(@Param("userId") Long userId,
+                                                    @Param("now") LocalDateTime now,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+
+    @Query(BY_OWNER + "and b.start > :now " + BEFORE_CURSOR + ORDER_BY_START)
+    List<BookingView> findFutureViewPageByItemOwnerId(@Param("userId") Long userId,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + "and b.status in :statuses " + ORDER_BY_START)
+    Stream<BookingView> streamByItemOwnerIdAndStatusIn(@Param("userId") Long userId,
+                                                       @Param("statuses") Collection<BookingStatus> statuses);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + "and b.start < :now and b.end > :now " + ORDER_BY_START)
+    Stream<BookingView> streamCurrentByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + "and b.end < :now " + ORDER_BY_START)
+    Stream<BookingView> streamPastByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BY_OWNER + "and b.start > :now " + ORDER_BY_START)
+    Stream<BookingView> streamFutureByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.repository.BookingEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая доставка событий бронирований из outbox слушателям {@link BookingEventListener}.
+ * События читаются пачками по вещам в порядке номеров sequence, выданных в порядке фиксации транзакций,
+ * и удаляются после доставки всем слушателям.
+ * Если слушатель не обработал событие, доставка событий этой вещи откладывается с экспоненциальной задержкой
+ * от shareit.outbox.retry-delay до shareit.outbox.max-retry-delay, и следующие пачки выбираются без неё;
+ * события других вещей доставляются дальше. После shareit.outbox.max-attempts попыток событие помечается dead,
+ * остаётся в таблице для разбора, и доставка следующих событий вещи продолжается.
+ * <p>
+ * Метрики: shareit.outbox.events с тегом result (delivered, failed, dead).
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.outbox.dispatcher.enabled", matchIfMissing = true)
+@Slf4j
+public class BookingEventDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final BookingEventRepository bookingEventRepository;
+    private final List<BookingEventListener> listeners;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dead;
+
+    @Value("${shareit.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${shareit.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${shareit.outbox.retry-delay:1s}")
+    private Duration retryDelay;
+
+    @Value("${shareit.outbox.max-retry-delay:5m}")
+    private Duration maxRetryDelay;
+
+    public BookingEventDispatcher(BookingEventRepository bookingEventRepository,
+                                  ObjectProvider<BookingEventListener> listeners,
+                                  MeterRegistry meterRegistry) {
+        this.bookingEventRepository = bookingEventRepository;
+        this.listeners = listeners.orderedStream().collect(Collectors.toList());
+        delivered = Counter.builder("shareit.outbox.events")
+                .tag("result", "delivered")
+                .register(meterRegistry);
+        failed = Counter.builder("shareit.outbox.events")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        dead = Counter.builder("shareit.outbox.events")
+                .tag("result", "dead")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Доставка накопленных событий пачками, пока пачки заполнены.
+     * Каждая пачка либо удаляет, либо откладывает события, поэтому следующая пачка выбирает новые события.
+     */
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        boolean more = true;
+        while (more) {
+            List<BookingEvent> events = bookingEventRepository.findDeliverable(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return;
+            }
+            Map<Long, List<BookingEvent>> byItem = new LinkedHashMap<>();
+            events.forEach(event -> byItem.computeIfAbsent(event.getItemId(), itemId -> new ArrayList<>()).add(event));
+            List<Long> deliveredIds = new ArrayList<>();
+            for (List<BookingEvent> itemEvents : byItem.values()) {
+                deliver(itemEvents, deliveredIds);
+            }
+            if (!deliveredIds.isEmpty()) {
+                bookingEventRepository.deleteAllByIdInBatch(deliveredIds);
+            }
+            more = events.size() == batchSize;
+        }
+    }
+
+    /**
+     * Доставка событий одной вещи по порядку до первого события, доставка которого отложена
+     */
+    private void deliver(List<BookingEvent> itemEvents, List<Long> deliveredIds) {
+        for (BookingEvent event : itemEvents) {
+            try {
+                listeners.forEach(listener -> listener.onEvent(event));
+            } catch (RuntimeException e) {
+                if (!reject(event, e)) {
+                    return;
+                }
+                continue;
+            }
+            delivered.increment();
+            deliveredIds.add(event.getId());
+        }
+    }
+
+    /**
+     * Учёт неудачной попытки доставки
+     *
+     * @return true, если событие помечено dead и можно доставлять следующие события вещи
+     */
+    private boolean reject(BookingEvent event, RuntimeException e) {
+        failed.increment();
+        event.setAttempts(event.getAttempts() + 1);
+        String error = String.valueOf(e.getMessage());
+        event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setDead(true);
+            event.setNextAttemptAt(null);
+            bookingEventRepository.save(event);
+            dead.increment();
+            log.error("Событие {} вещи с ID = {} не доставлено за {} попыток и исключено из доставки: {}",
+                    event.getId(), event.getItemId(), event.getAttempts(), e.getMessage());
+            return true;
+        }
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+        bookingEventRepository.save(event);
+        log.warn("Событие {} не доставлено, доставка событий вещи с ID = {} отложена до {}: {}",
+                event.getId(), event.getItemId(), event.getNextAttemptAt(), e.getMessage());
+        return false;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+}
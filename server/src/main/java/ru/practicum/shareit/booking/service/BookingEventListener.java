@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+/**
+ * Слушатель событий бронирований из outbox. Доставка не реже одного раза: после сбоя событие
+ * доставляется повторно всем слушателям, поэтому обработка должна быть идемпотентной.
+ * События одной вещи доставляются в порядке фиксации транзакций, которые их записали.
+ */
+public interface BookingEventListener {
+
+    /**
+     * Обработка события, вызывается вне транзакции
+     *
+     * @param event Событие бронирования
+     * @throws RuntimeException Событие не обработано, доставка событий вещи будет повторена
+     */
+    void onEvent(BookingEvent event);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+/**
+ * Журналирование событий бронирований
+ */
+@Component
+@Slf4j
+public class BookingEventLogger implements BookingEventListener {
+
+    @Override
+    public void onEvent(BookingEvent event) {
+        log.debug("Событие {} бронирования с ID = {} вещи с ID = {}", event.getType(), event.getBookingId(), event.getItemId());
+    }
+}
@@ -0,0 +1,267 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventDto;
+import ru.practicum.shareit.exception.NotFound;
+import ru.practicum.shareit.exception.ServiceUnavailable;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Поток событий бронирований (SSE) для арендаторов и владельцев вещей.
+ * События приходят из outbox через {@link BookingEventDispatcher} и отправляются подписчикам с Id арендатора
+ * или владельца вещи. Подписка не занимает поток обработки запросов: у каждого подписчика своя ограниченная очередь,
+ * отправку выполняет общий пул shareit.stream.sender-threads. Подписчик, очередь которого заполнена
+ * (клиент не успевает читать), отключается и должен переподключиться.
+ * Подписчик, запись которому длится дольше shareit.stream.write-timeout, тоже отключается; поток, занятый
+ * зависшей записью, до её завершения таймаутом контейнера заменяется дополнительным (не более
+ * shareit.stream.stalled-sender-threads), чтобы медленные клиенты не задерживали остальных.
+ * Раз в shareit.stream.heartbeat-interval подписчикам отправляется комментарий, чтобы обнаружить закрытые соединения.
+ * <p>
+ * Метрики: shareit.stream.subscribers и shareit.stream.evicted.
+ */
+@Component
+@Slf4j
+public class BookingEventStream implements BookingEventListener {
+
+    private static final long IDLE = 0;
+    private static final long STALLED = Long.MIN_VALUE;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final UserService userService;
+    private final ThreadPoolExecutor senders;
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+    private final ScheduledExecutorService heartbeats;
+    private final Counter evicted;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final long writeTimeoutNanos;
+    private final int senderThreads;
+    private final int maxStalledSenders;
+
+    public BookingEventStream(UserService userService,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.stream.buffer-size:32}") int bufferSize,
+                              @Value("${shareit.stream.max-subscribers:50000}") int maxSubscribers,
+                              @Value("${shareit.stream.timeout:30m}") Duration timeout,
+                              @Value("${shareit.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                              @Value("${shareit.stream.sender-threads:8}") int senderThreads,
+                              @Value("${shareit.stream.write-timeout:10s}") Duration writeTimeout,
+                              @Value("${shareit.stream.stalled-sender-threads:32}") int maxStalledSenders) {
+        this.userService = userService;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.senderThreads = senderThreads;
+        this.maxStalledSenders = maxStalledSenders;
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads + maxStalledSenders, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("booking-stream-"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("booking-stream-heartbeat-"));
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        long stallCheckInterval = Math.max(1, writeTimeout.toMillis() / 2);
+        heartbeats.scheduleAtFixedRate(this::evictStalled, stallCheckInterval, stallCheckInterval, TimeUnit.MILLISECONDS);
+        evicted = meterRegistry.counter("shareit.stream.evicted");
+        Gauge.builder("shareit.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подписка на события бронирований пользователя
+     *
+     * @param userId Id пользователя
+     * @return Поток событий, завершается по таймауту shareit.stream.timeout
+     * @throws NotFound           Пользователь не найден
+     * @throws ServiceUnavailable Превышено число подписчиков
+     */
+    public SseEmitter subscribe(Long userId) {
+        userService.existsById(userId);
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailable("Превышено число подписчиков на события бронирований");
+        }
+        Subscriber subscriber = new Subscriber(userId, createEmitter(timeout.toMillis()), bufferSize);
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> current = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        log.debug("Подписка на события бронирований пользователя с ID = {}", userId);
+        return subscriber.emitter;
+    }
+
+    @Override
+    public void onEvent(BookingEvent event) {
+        BookingEventDto data = BookingMapper.toDto(event);
+        Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event()
+                .id(String.valueOf(event.getId()))
+                .name(event.getType().name())
+                .data(data, MediaType.APPLICATION_JSON);
+        offer(event.getBookerId(), message);
+        if (!event.getOwnerId().equals(event.getBookerId())) {
+            offer(event.getOwnerId(), message);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers
+                .forEach(subscriber -> offer(subscriber, SseEmitter.event().comment("ping"))));
+    }
+
+    private void offer(Long userId, Supplier<SseEmitter.SseEventBuilder> message) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> offer(subscriber, message.get()));
+        }
+    }
+
+    /**
+     * Постановка сообщения в очередь подписчика; при заполненной очереди подписчик отключается
+     */
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder message) {
+        if (!subscriber.queue.offer(message)) {
+            evicted.increment();
+            log.debug("Подписчик пользователя с ID = {} не успевает читать события и отключён", subscriber.userId);
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Отправка очереди подписчика. Одновременно очередь подписчика отправляет не более одного потока
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder message;
+            while ((message = subscriber.queue.poll()) != null) {
+                if (!write(subscriber, message)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Запись сообщения подписчику с отметкой времени начала для {@link #evictStalled()}
+     *
+     * @return false, если запись признана зависшей и подписчик отключён
+     */
+    private boolean write(Subscriber subscriber, SseEmitter.SseEventBuilder message) throws IOException {
+        subscriber.writeStarted.set(System.nanoTime());
+        boolean stalled;
+        try {
+            subscriber.emitter.send(message);
+        } finally {
+            stalled = subscriber.writeStarted.getAndSet(IDLE) == STALLED;
+            if (stalled) {
+                resizeSenders(-1);
+                subscriber.emitter.complete();
+            }
+        }
+        return !stalled;
+    }
+
+    /**
+     * Отключение подписчиков, запись которым длится дольше shareit.stream.write-timeout.
+     * Запись не прерывается: прерывание потока пула могло бы закрыть соединение другого подписчика.
+     * Вместо занятого потока пул получает дополнительный до завершения зависшей записи.
+     */
+    private void evictStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            long started = subscriber.writeStarted.get();
+            if (started != IDLE && started != STALLED && now - started > writeTimeoutNanos
+                    && subscriber.writeStarted.compareAndSet(started, STALLED)) {
+                evicted.increment();
+                log.debug("Запись подписчику пользователя с ID = {} зависла, подписчик отключён", subscriber.userId);
+                remove(subscriber);
+                subscriber.queue.clear();
+                resizeSenders(1);
+            }
+        }));
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        int stalled = stalledSenders.addAndGet(delta);
+        senders.setCorePoolSize(senderThreads + Math.min(stalled, maxStalledSenders));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            if (userSubscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicLong writeStarted = new AtomicLong(IDLE);
+
+        private Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
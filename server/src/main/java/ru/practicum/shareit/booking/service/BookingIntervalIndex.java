@@ -0,0 +1,306 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCommit;
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterRollback;
+
+/**
+ * Индекс интервалов активных (WAITING, APPROVED) бронирований по каждой вещи.
+ * Интервалы вещи загружаются из БД при первом обращении, дальше поддерживаются в памяти.
+ * Все операции над вещью выполняются под блокировкой её страйпа, поэтому загрузка идёт вне блокировок ConcurrentHashMap.
+ * Завершившиеся интервалы, не пересекающиеся ни с одним действующим, удаляются при загрузке и добавлении.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+
+    private static final int STRIPES = 64;
+    public static final List<BookingStatus> ACTIVE = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, Intervals> intervalsByItem = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = createLocks();
+
+    /**
+     * Выполнение действия под блокировкой вещи
+     *
+     * @param itemId Id вещи
+     * @param action Действие
+     * @return Результат действия
+     */
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(itemId.hashCode(), STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Проверка пересечения с активными бронированиями вещи. Вызывается под блокировкой вещи.
+     *
+     * @param itemId           Id вещи
+     * @param start            Начало бронирования
+     * @param end              Окончание бронирования
+     * @param excludeBookingId Id бронирования, которое не учитывается, может быть null
+     * @return true, если есть пересечение
+     */
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end, Long excludeBookingId) {
+        return intervals(itemId, now()).overlaps(toEpochNanos(start), toEpochNanos(end),
+                excludeBookingId == null ? Long.MIN_VALUE : excludeBookingId);
+    }
+
+    /**
+     * Добавление бронирования в индекс. Вызывается под блокировкой вещи.
+     * При откате транзакции бронирование удаляется из индекса.
+     *
+     * @param booking Бронирование
+     */
+    public void add(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        long now = now();
+        Intervals intervals = intervals(itemId, now);
+        intervals.add(toEpochNanos(booking.getStart()), toEpochNanos(booking.getEnd()), bookingId);
+        intervals.prune(now);
+        afterRollback(() -> remove(itemId, bookingId));
+    }
+
+    /**
+     * Удаление бронирования из индекса после фиксации транзакции
+     *
+     * @param itemId    Id вещи
+     * @param bookingId Id бронирования
+     */
+    public void removeAfterCommit(Long itemId, Long bookingId) {
+        afterCommit(() -> remove(itemId, bookingId));
+    }
+
+    /**
+     * Сброс интервалов вещи после фиксации транзакции, например при удалении вещи
+     *
+     * @param itemId Id вещи
+     */
+    public void evictAfterCommit(Long itemId) {
+        afterCommit(() -> withItemLock(itemId, () -> intervalsByItem.remove(itemId)));
+    }
+
+    /**
+     * Сброс интервалов вещей после фиксации транзакции, например при удалении владельца
+     *
+     * @param itemIds Id вещей
+     */
+    public void evictAfterCommit(Collection<Long> itemIds) {
+        afterCommit(() -> itemIds.forEach(itemId -> withItemLock(itemId, () -> intervalsByItem.remove(itemId))));
+    }
+
+    /**
+     * Удаление бронирований из индекса после фиксации транзакции, например при удалении арендатора.
+     * Остальные интервалы вещей, в том числе ещё не зафиксированные, сохраняются.
+     *
+     * @param bookings Бронирования с Id вещей
+     */
+    public void removeAfterCommit(Collection<ItemBookingView> bookings) {
+        afterCommit(() -> bookings.forEach(booking -> remove(booking.getItemId(), booking.getId())));
+    }
+
+    private void remove(Long itemId, Long bookingId) {
+        withItemLock(itemId, () -> {
+            Intervals intervals = intervalsByItem.get(itemId);
+            if (intervals != null) {
+                intervals.remove(bookingId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Интервалы вещи; вызывается под блокировкой вещи, поэтому другой поток не загрузит их одновременно
+     */
+    private Intervals intervals(Long itemId, long now) {
+        Intervals intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            intervals = load(itemId, now);
+            intervalsByItem.put(itemId, intervals);
+        }
+        return intervals;
+    }
+
+    private Intervals load(Long itemId, long now) {
+        Intervals intervals = new Intervals();
+        for (BookingInterval interval : bookingRepository.findAllByItemIdAndStatusIn(itemId, ACTIVE)) {
+            intervals.add(toEpochNanos(interval.getStart()), toEpochNanos(interval.getEnd()), interval.getId());
+        }
+        intervals.prune(now);
+        log.debug("Загружены интервалы бронирований вещи с ID = {}, количество {}", itemId, intervals.size);
+        return intervals;
+    }
+
+    private static long now() {
+        return toEpochNanos(LocalDateTime.now());
+    }
+
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        return TimeUnit.SECONDS.toNanos(dateTime.toEpochSecond(ZoneOffset.UTC)) + dateTime.getNano();
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Полуоткрытые интервалы [start, end), отсортированные по началу.
+     * Для каждого префикса 0..i хранятся два наибольших окончания разных интервалов: maxEnds[i] с Id maxIds[i]
+     * и secondEnds[i]. С пересечением претендуют только интервалы, начавшиеся до окончания нового, то есть префикс,
+     * найденный бинарным поиском; пересечение есть, если наибольшее окончание префикса позже начала нового.
+     * Если это интервал исключённого бронирования, проверяется второе окончание.
+     * Проверка выполняется за O(log n), добавление и удаление сдвигают массивы и пересчитывают префиксы за O(n).
+     */
+    private static final class Intervals {
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private long[] ids = new long[4];
+        private long[] maxEnds = new long[4];
+        private long[] maxIds = new long[4];
+        private long[] secondEnds = new long[4];
+        private int size;
+
+        boolean overlaps(long start, long end, long excludeId) {
+            int last = lowerBound(end) - 1;
+            if (last < 0) {
+                return false;
+            }
+            return maxIds[last] != excludeId ? maxEnds[last] > start : secondEnds[last] > start;
+        }
+
+        void add(long start, long end, long id) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+                maxIds = Arrays.copyOf(maxIds, capacity);
+                secondEnds = Arrays.copyOf(secondEnds, capacity);
+            }
+            int position = lowerBound(start + 1);
+            int tail = size - position;
+            System.arraycopy(starts, position, starts, position + 1, tail);
+            System.arraycopy(ends, position, ends, position + 1, tail);
+            System.arraycopy(ids, position, ids, position + 1, tail);
+            starts[position] = start;
+            ends[position] = end;
+            ids[position] = id;
+            size++;
+            updateMaxEnds(position);
+        }
+
+        /**
+         * Удаление интервалов, закончившихся к моменту now и до начала первого действующего интервала.
+         * Новые бронирования начинаются не раньше текущего момента, а действующие не пересекаются с удалёнными.
+         */
+        void prune(long now) {
+            int live = 0;
+            while (live < size && ends[live] <= now) {
+                live++;
+            }
+            if (live == 0) {
+                return;
+            }
+            long cutoff = live < size ? Math.min(now, starts[live]) : now;
+            int kept = 0;
+            for (int i = 0; i < live; i++) {
+                if (ends[i] > cutoff) {
+                    starts[kept] = starts[i];
+                    ends[kept] = ends[i];
+                    ids[kept] = ids[i];
+                    kept++;
+                }
+            }
+            if (kept == live) {
+                return;
+            }
+            int tail = size - live;
+            System.arraycopy(starts, live, starts, kept, tail);
+            System.arraycopy(ends, live, ends, kept, tail);
+            System.arraycopy(ids, live, ids, kept, tail);
+            size = kept + tail;
+            updateMaxEnds(0);
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    int tail = size - i - 1;
+                    System.arraycopy(starts, i + 1, starts, i, tail);
+                    System.arraycopy(ends, i + 1, ends, i, tail);
+                    System.arraycopy(ids, i + 1, ids, i, tail);
+                    size--;
+                    updateMaxEnds(i);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return Индекс первого интервала с началом не меньше value
+         */
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void updateMaxEnds(int from) {
+            long max = from == 0 ? Long.MIN_VALUE : maxEnds[from - 1];
+            long maxId = from == 0 ? 0 : maxIds[from - 1];
+            long second = from == 0 ? Long.MIN_VALUE : secondEnds[from - 1];
+            for (int i = from; i < size; i++) {
+                if (ends[i] > max) {
+                    second = max;
+                    max = ends[i];
+                    maxId = ids[i];
+                } else if (ends[i] > second) {
+                    second = ends[i];
+                }
+                maxEnds[i] = max;
+                maxIds[i] = maxId;
+                secondEnds[i] = second;
+            }
+        }
+    }
+}
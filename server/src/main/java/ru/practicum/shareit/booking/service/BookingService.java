@@ -1,15 +1,20 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.batch.model.BatchResultDto;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingApproveDto;
 import ru.practicum.shareit.booking.model.BookingDto;
 import ru.practicum.shareit.booking.model.BookingRequestDto;
+import ru.practicum.shareit.booking.model.BookingShortDto;
 import ru.practicum.shareit.exception.NotAvailable;
 import ru.practicum.shareit.exception.NotFound;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 
 public interface BookingService {
@@ -39,6 +44,16 @@ public interface BookingService {
      */
     BookingDto approve(Long bookingId, Long userId, Boolean approved);
 
+    /**
+     * Метод пакетного подтверждения бронирований в одной транзакции
+     *
+     * @param decisions Id бронирований и решения по ним
+     * @param userId    Id владельца вещей
+     * @return Результаты в порядке решений, для необработанных бронирований - ошибка
+     * @throws NotFound Пользователь не найден
+     */
+    List<BatchResultDto<BookingDto>> approveAll(List<BookingApproveDto> decisions, Long userId);
+
     /**
      * Метод получения брониварония бронирования
      *
@@ -50,6 +65,27 @@ public interface BookingService {
      */
     BookingDto get(Long bookingId, Long userId);
 
+    /**
+     * Метод получения ETag бронирования по версиям без загрузки DTO
+     *
+     * @param bookingId Id бронирования
+     * @param userId    Id владельца вещи или того, кто забронировал
+     * @return ETag ответа {@link #get(Long, Long)}
+     * @throws NotFound Пользователь не найден
+     * @throws NotFound Бронивароние не найдено
+     */
+    String getETag(Long bookingId, Long userId);
+
+    /**
+     * Метод пакетного получения бронирований одним запросом
+     *
+     * @param bookingIds Список Id бронирований
+     * @param userId     Id владельца вещи или того, кто забронировал
+     * @return Результаты в порядке Id, для недоступных бронирований - ошибка
+     * @throws NotFound Пользователь не найден
+     */
+    List<BatchResultDto<BookingDto>> getByIds(List<Long> bookingIds, Long userId);
+
     /**
      * Метод получения списка бронирования, постранично
      *
@@ -57,33 +93,73 @@ public interface BookingService {
      * @param userId Id пользователя
      * @param from   Индекс первого элемента
      * @param size   Количество элементов для отображения
+     * @param cursor Курсор следующей страницы, если указан, то from не используется
      * @return Список объектов DTO бронирования
      * @throws NotFound                 Пользователь не найден
-     * @throws IllegalArgumentException Неверный статус
+     * @throws IllegalArgumentException Неверный статус или курсор
      */
-    List<BookingDto> get(String state, Long userId, Integer from, Integer size);
+    List<BookingDto> get(String state, Long userId, Integer from, Integer size, String cursor);
 
     /**
      * @param state  Стутус бронирования
      * @param userId Id владельца вещи
      * @param from   Индекс первого элемента
      * @param size   Количество элементов для отображения
+     * @param cursor Курсор следующей страницы, если указан, то from не используется
      * @return Список объектов DTO бронирования
      * @throws NotFound                 Пользователь не найден
-     * @throws IllegalArgumentException Неверный статус     *
+     * @throws IllegalArgumentException Неверный статус или курсор
      */
-    List<BookingDto> getByOwner(String state, Long userId, Integer from, Integer size);
+    List<BookingDto> getByOwner(String state, Long userId, Integer from, Integer size, String cursor);
 
+    /**
+     * Метод проверки параметров выгрузки до начала ответа
+     *
+     * @param state  Стутус бронирования
+     * @param userId Id пользователя
+     * @throws NotFound                 Пользователь не найден
+     * @throws IllegalArgumentException Неверный статус
+     */
+    void checkExport(String state, Long userId);
 
     /**
-     * Метод получения списка бронирования
+     * Метод выгрузки всех бронирований пользователя курсором БД, без загрузки в память всего списка
      *
-     * @param items  Список вещей
-     * @param status Статус бронирования
-     * @return Список объектов бронирования
+     * @param state  Стутус бронирования
+     * @param userId Id пользователя
+     * @param action Обработчик бронирования, вызывается в транзакции выгрузки от новых к старым
+     * @throws IllegalArgumentException Неверный статус
+     */
+    void export(String state, Long userId, Consumer<BookingDto> action);
+
+    /**
+     * Метод выгрузки всех бронирований вещей владельца курсором БД, без загрузки в память всего списка
+     *
+     * @param state  Стутус бронирования
+     * @param userId Id владельца вещей
+     * @param action Обработчик бронирования, вызывается в транзакции выгрузки от новых к старым
+     * @throws IllegalArgumentException Неверный статус
      */
+    void exportByOwner(String state, Long userId, Consumer<BookingDto> action);
 
-    List<Booking> findAllByItemInAndStatus(List<Item> items, BookingStatus status);
+
+    /**
+     * Метод получения последних подтверждённых бронирований, начавшихся до указанного момента, по вещам
+     *
+     * @param itemIds Список Id вещей
+     * @param now     Текущий момент
+     * @return Бронирования по Id вещи
+     */
+    Map<Long, BookingShortDto> findLastBookings(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * Метод получения ближайших подтверждённых бронирований, начинающихся после указанного момента, по вещам
+     *
+     * @param itemIds Список Id вещей
+     * @param now     Текущий момент
+     * @return Бронирования по Id вещи
+     */
+    Map<Long, BookingShortDto> findNextBookings(Collection<Long> itemIds, LocalDateTime now);
 
     /**
      * Метод проверяет бралась ли вещь в аренду
@@ -5,28 +5,47 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.batch.model.BatchResultDto;
+import ru.practicum.shareit.booking.BookingEventType;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingApproveDto;
 import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
 import ru.practicum.shareit.booking.model.BookingRequestDto;
+import ru.practicum.shareit.booking.model.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingVersionView;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingEventRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.NotAvailable;
 import ru.practicum.shareit.exception.NotFound;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor(onConstructor_ = {@Lazy})
@@ -37,6 +56,8 @@ public class BookingServiceImpl implements BookingService {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingRepository bookingRepository;
+    private final BookingEventRepository bookingEventRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     @Transactional
@@ -44,24 +65,82 @@ public class BookingServiceImpl implements BookingService {
         User user = UserMapper.toModel(userService.get(userId));
         Item item = itemService.get((bookingDto.getItemId()));
         checkBeforeCreate(user, item);
-        Booking booking = bookingRepository.save(BookingMapper.toModel(bookingDto, item, user));
-        log.debug("Бронирование создано {}", booking);
-        return BookingMapper.toDto(booking);
+        bookingEventRepository.lockItem(item.getId());
+        return bookingIntervalIndex.withItemLock(item.getId(), () -> {
+            checkOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd(), null);
+            Booking booking = bookingRepository.save(BookingMapper.toModel(bookingDto, item, user));
+            bookingIntervalIndex.add(booking);
+            publish(booking, BookingEventType.CREATED);
+            log.debug("Бронирование создано {}", booking);
+            return BookingMapper.toDto(booking);
+        });
     }
 
     @Override
     @Transactional
     public BookingDto approve(Long bookingId, Long userId, Boolean approved) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFound(BOOKING, bookingId));
-        checkBeforeApprove(booking, userId);
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        bookingEventRepository.lockItem(booking.getItem().getId());
+        return approve(booking, userId, approved);
+    }
+
+    @Override
+    @Transactional
+    public List<BatchResultDto<BookingDto>> approveAll(List<BookingApproveDto> decisions, Long userId) {
+        userService.existsById(userId);
+        List<Long> bookingIds = decisions.stream().map(BookingApproveDto::getBookingId).collect(Collectors.toList());
+        Map<Long, Booking> bookings = findAllByIdIn(bookingIds);
+        // Вещи блокируются по возрастанию Id, чтобы пачки с разным порядком вещей не блокировали друг друга
+        bookings.values().stream()
+                .filter(booking -> booking.getItem().getOwner().getId().equals(userId))
+                .map(booking -> booking.getItem().getId())
+                .distinct()
+                .sorted()
+                .forEach(bookingEventRepository::lockItem);
+        List<BatchResultDto<BookingDto>> results = new ArrayList<>();
+        for (BookingApproveDto decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            try {
+                Booking booking = bookings.get(bookingId);
+                if (booking == null) {
+                    throw new NotFound(BOOKING, bookingId);
+                }
+                results.add(BatchResultDto.of(bookingId, approve(booking, userId, decision.getApproved())));
+            } catch (NotFound | NotAvailable | IllegalArgumentException e) {
+                log.debug("Бронирование с ID = {} не обработано: {}", bookingId, e.getMessage());
+                results.add(BatchResultDto.error(bookingId, e.getMessage()));
+            }
         }
-        log.debug("Бронирование обработано {}", booking);
-        return BookingMapper.toDto(bookingRepository.save(booking));
+        return results;
+    }
 
+    /**
+     * Подтверждение или отклонение загруженного бронирования
+     *
+     * @param booking  Бронирование
+     * @param userId   Id владельца вещи
+     * @param approved Подтверждение\отклонение бронирования
+     * @return Объект DTO бронирования
+     * @throws NotFound                 Бронивароние не найдено
+     * @throws NotAvailable             Вещь уже забронирована на эти даты
+     * @throws IllegalArgumentException Бронирование уже обработано
+     */
+    private BookingDto approve(Booking booking, Long userId, Boolean approved) {
+        checkBeforeApprove(booking, userId);
+        Long itemId = booking.getItem().getId();
+        return bookingIntervalIndex.withItemLock(itemId, () -> {
+            if (approved) {
+                checkOverlap(itemId, booking.getStart(), booking.getEnd(), booking.getId());
+                booking.setStatus(BookingStatus.APPROVED);
+                publish(booking, BookingEventType.APPROVED);
+            } else {
+                booking.setStatus(BookingStatus.REJECTED);
+                publish(booking, BookingEventType.REJECTED);
+                bookingIntervalIndex.removeAfterCommit(itemId, booking.getId());
+            }
+            log.debug("Бронирование обработано {}", booking);
+            return BookingMapper.toDto(bookingRepository.save(booking));
+        });
     }
 
     @Override
@@ -74,96 +153,154 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> get(String state, Long userId, Integer from, Integer size) {
+    public String getETag(Long bookingId, Long userId) {
+        userService.existsById(userId);
+        BookingVersionView booking = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFound(BOOKING, bookingId));
+        if (!booking.getBookerId().equals(userId) && !booking.getOwnerId().equals(userId)) {
+            throw new NotFound(BOOKING, bookingId);
+        }
+        return EntityTags.of(bookingId, booking.getVersion(), booking.getItemVersion(), booking.getBookerVersion());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchResultDto<BookingDto>> getByIds(List<Long> bookingIds, Long userId) {
+        userService.existsById(userId);
+        Map<Long, Booking> bookings = findAllByIdIn(bookingIds);
+        return bookingIds.stream()
+                .map(bookingId -> {
+                    Booking booking = bookings.get(bookingId);
+                    if (booking == null || (!booking.getBooker().getId().equals(userId)
+                            && !booking.getItem().getOwner().getId().equals(userId))) {
+                        return BatchResultDto.<BookingDto>error(bookingId, new NotFound(BOOKING, bookingId).getMessage());
+                    }
+                    return BatchResultDto.of(bookingId, BookingMapper.toDto(booking));
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> get(String state, Long userId, Integer from, Integer size, String cursor) {
         userService.existsById(userId);
         log.debug("Запрошен список бронирований пользователя с ID = {}, состояние {}", userId, state);
-        Pageable pageable = PageRequest.of(
-                from == 0 ? 0 : (from / size),
-                size,
-                Sort.by(Sort.Direction.DESC, "start"));
-        switch (BookingState.valueOf(state)) {
-            case ALL:
-                return bookingRepository.findAllByBookerId(userId, pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+        if (cursor != null) {
+            return getPageByBooker(BookingState.valueOf(state), userId, PageCursor.decode(cursor), size);
+        }
+        BookingState bookingState = BookingState.valueOf(state);
+        Pageable pageable = PageRequest.of(from == 0 ? 0 : (from / size), size);
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingView> bookings;
+        switch (bookingState) {
             case CURRENT:
-                return bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(userId, LocalDateTime.now(), LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findCurrentViewsByBookerId(userId, now, pageable);
+                break;
             case PAST:
-                return bookingRepository.findAllByBookerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findPastViewsByBookerId(userId, now, pageable);
+                break;
             case FUTURE:
-                return bookingRepository.findAllByBookerIdAndStartIsAfter(userId, LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
-            case WAITING:
-                return bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
-            case REJECTED:
-                return bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findFutureViewsByBookerId(userId, now, pageable);
+                break;
+            default:
+                bookings = bookingRepository.findViewsByBookerIdAndStatusIn(userId, toStatuses(bookingState), pageable);
         }
-        return new ArrayList<>();
+        return toDtos(bookings);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> getByOwner(String state, Long userId, Integer from, Integer size) {
+    public List<BookingDto> getByOwner(String state, Long userId, Integer from, Integer size, String cursor) {
         userService.existsById(userId);
         log.debug("Запрошен список бронирований вещей пользователя с ID = {}, состояние {}", userId, state);
-        Pageable pageable = PageRequest.of(
-                from == 0 ? 0 : (from / size),
-                size,
-                Sort.by(Sort.Direction.DESC, "start"));
-        switch (BookingState.valueOf(state)) {
-            case ALL:
-                return bookingRepository.findAllByItemOwnerId(userId, pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+        if (cursor != null) {
+            return getPageByOwner(BookingState.valueOf(state), userId, PageCursor.decode(cursor), size);
+        }
+        BookingState bookingState = BookingState.valueOf(state);
+        Pageable pageable = PageRequest.of(from == 0 ? 0 : (from / size), size);
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingView> bookings;
+        switch (bookingState) {
             case CURRENT:
-                return bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(userId, LocalDateTime.now(), LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findCurrentViewsByItemOwnerId(userId, now, pageable);
+                break;
             case PAST:
-                return bookingRepository.findAllByItemOwnerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findPastViewsByItemOwnerId(userId, now, pageable);
+                break;
             case FUTURE:
-                return bookingRepository.findAllByItemOwnerIdAndStartIsAfter(userId, LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
-            case WAITING:
-                return bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
-            case REJECTED:
-                return bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED, pageable)
-                        .stream()
-                        .map(BookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findFutureViewsByItemOwnerId(userId, now, pageable);
+                break;
+            default:
+                bookings = bookingRepository.findViewsByItemOwnerIdAndStatusIn(userId, toStatuses(bookingState), pageable);
+        }
+        return toDtos(bookings);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void checkExport(String state, Long userId) {
+        BookingState.valueOf(state);
+        userService.existsById(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(String state, Long userId, Consumer<BookingDto> action) {
+        log.debug("Выгрузка бронирований пользователя с ID = {}, состояние {}", userId, state);
+        BookingState bookingState = BookingState.valueOf(state);
+        LocalDateTime now = LocalDateTime.now();
+        switch (bookingState) {
+            case CURRENT:
+                export(bookingRepository.streamCurrentByBookerId(userId, now), action);
+                break;
+            case PAST:
+                export(bookingRepository.streamPastByBookerId(userId, now), action);
+                break;
+            case FUTURE:
+                export(bookingRepository.streamFutureByBookerId(userId, now), action);
+                break;
+            default:
+                export(bookingRepository.streamByBookerIdAndStatusIn(userId, toStatuses(bookingState)), action);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByOwner(String state, Long userId, Consumer<BookingDto> action) {
+        log.debug("Выгрузка бронирований вещей пользователя с ID = {}, состояние {}", userId, state);
+        BookingState bookingState = BookingState.valueOf(state);
+        LocalDateTime now = LocalDateTime.now();
+        switch (bookingState) {
+            case CURRENT:
+                export(bookingRepository.streamCurrentByItemOwnerId(userId, now), action);
+                break;
+            case PAST:
+                export(bookingRepository.streamPastByItemOwnerId(userId, now), action);
+                break;
+            case FUTURE:
+                export(bookingRepository.streamFutureByItemOwnerId(userId, now), action);
+                break;
+            default:
+                export(bookingRepository.streamByItemOwnerIdAndStatusIn(userId, toStatuses(bookingState)), action);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BookingShortDto> findLastBookings(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
         }
-        return new ArrayList<>();
+        return toShortDtoByItemId(bookingRepository.findLastByItemIdIn(itemIds, BookingStatus.APPROVED, now));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> findAllByItemInAndStatus(List<Item> items, BookingStatus status) {
-        return bookingRepository.findAllByItemInAndStatus(items, status);
+    public Map<Long, BookingShortDto> findNextBookings(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return toShortDtoByItemId(bookingRepository.findNextByItemIdIn(itemIds, BookingStatus.APPROVED, now));
     }
 
     @Override
@@ -172,6 +309,144 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.findAllByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId, status, end);
     }
 
+    /**
+     * Получение страницы бронирований пользователя после курсора
+     *
+     * @param state  Стутус бронирования
+     * @param userId Id пользователя
+     * @param cursor Курсор по дате начала и Id последнего бронирования предыдущей страницы
+     * @param size   Количество элементов для отображения
+     * @return Список объектов DTO бронирования
+     */
+    private List<BookingDto> getPageByBooker(BookingState state, Long userId, PageCursor cursor, Integer size) {
+        Pageable pageable = PageRequest.of(0, size);
+        LocalDateTime cursorStart = cursor.getRequiredSortKey();
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingView> bookings;
+        switch (state) {
+            case CURRENT:
+                bookings = bookingRepository.findCurrentViewPageByBookerId(userId, now, cursorStart, cursor.getId(), pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastViewPageByBookerId(userId, now, cursorStart, cursor.getId(), pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureViewPageByBookerId(userId, now, cursorStart, cursor.getId(), pageable);
+                break;
+            default:
+                bookings = bookingRepository.findViewPageByBookerIdAndStatusIn(userId, toStatuses(state), cursorStart, cursor.getId(), pageable);
+        }
+        return toDtos(bookings);
+    }
+
+    /**
+     * Получение страницы бронирований вещей пользователя после курсора
+     *
+     * @param state  Стутус бронирования
+     * @param userId Id владельца вещей
+     * @param cursor Курсор по дате начала и Id последнего бронирования предыдущей страницы
+     * @param size   Количество элементов для отображения
+     * @return Список объектов DTO бронирования
+     */
+    private List<BookingDto> getPageByOwner(BookingState state, Long userId, PageCursor cursor, Integer size) {
+        Pageable pageable = PageRequest.of(0, size);
+        LocalDateTime cursorStart = cursor.getRequiredSortKey();
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingView> bookings;
+        switch (state) {
+            case CURRENT:
+                bookings = bookingRepository.findCurrentViewPageByItemOwnerId(userId, now, cursorStart, cursor.getId(), pageable);
+                break;
+            case PAST:
+                bookings = bookingRepository.findPastViewPageByItemOwnerId(userId, now, cursorStart, cursor.getId(), pageable);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findFutureViewPageByItemOwnerId(userId, now, cursorStart, cursor.getId(), pageable);
+                break;
+            default:
+                bookings = bookingRepository.findViewPageByItemOwnerIdAndStatusIn(userId, toStatuses(state), cursorStart, cursor.getId(), pageable);
+        }
+        return toDtos(bookings);
+    }
+
+    /**
+     * Запись события в outbox в текущей транзакции изменения бронирования.
+     * Строка вещи заблокирована до фиксации транзакции ({@link BookingEventRepository#lockItem}) до блокировки вещи в памяти,
+     * поэтому номер события в пределах вещи растёт в порядке фиксации.
+     *
+     * @param booking Бронирование
+     * @param type    Тип события
+     */
+    private void publish(Booking booking, BookingEventType type) {
+        Long itemId = booking.getItem().getId();
+        bookingEventRepository.save(BookingEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(itemId)
+                .sequence(bookingEventRepository.findLastSequence(itemId) + 1)
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .type(type)
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Передача бронирований из курсора обработчику. Строки проекции не попадают в контекст персистентности,
+     * поэтому память не растёт с объёмом выгрузки
+     *
+     * @param bookings Поток бронирований, закрывается после выгрузки
+     * @param action   Обработчик бронирования
+     */
+    private void export(Stream<BookingView> bookings, Consumer<BookingDto> action) {
+        try (bookings) {
+            int count = 0;
+            Iterator<BookingView> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                action.accept(BookingMapper.toDto(iterator.next()));
+                count++;
+            }
+            log.debug("Выгружено бронирований: {}", count);
+        }
+    }
+
+    private static List<BookingDto> toDtos(List<BookingView> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Бронирования по Id вещи. При совпадении даты начала берётся бронирование с меньшим Id
+     *
+     * @param bookings Бронирования вещей
+     * @return Бронирования по Id вещи
+     */
+    private static Map<Long, BookingShortDto> toShortDtoByItemId(List<ItemBookingView> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(ItemBookingView::getItemId, BookingMapper::toShortDto,
+                        (first, second) -> first.getId() < second.getId() ? first : second));
+    }
+
+    private Map<Long, Booking> findAllByIdIn(List<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookingRepository.findAllByIdIn(bookingIds)
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+    }
+
+    private static Set<BookingStatus> toStatuses(BookingState state) {
+        switch (state) {
+            case WAITING:
+                return EnumSet.of(BookingStatus.WAITING);
+            case REJECTED:
+                return EnumSet.of(BookingStatus.REJECTED);
+            default:
+                return EnumSet.allOf(BookingStatus.class);
+        }
+    }
+
     /**
      * Проверки бронивароная перед созданием
      *
@@ -189,6 +464,21 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    /**
+     * Проверка пересечения с активными бронированиями вещи по индексу интервалов
+     *
+     * @param itemId           Id вещи
+     * @param start            Начало бронирования
+     * @param end              Окончание бронирования
+     * @param excludeBookingId Id проверяемого бронирования, может быть null
+     * @throws NotAvailable Вещь уже забронирована на эти даты
+     */
+    private void checkOverlap(Long itemId, LocalDateTime start, LocalDateTime end, Long excludeBookingId) {
+        if (bookingIntervalIndex.hasOverlap(itemId, start, end, excludeBookingId)) {
+            throw new NotAvailable(itemId);
+        }
+    }
+
     /**
      * Проверки перед подтверждением брониварония
      *
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.export.ExportExecutor;
+
+/**
+ * Выгрузки бронирований пишутся в отдельном ограниченном пуле, остальные асинхронные ответы MVC (SSE) - в общем applicationTaskExecutor.
+ * Выгрузка держит соединение с БД до конца ответа, поэтому shareit.export.max-concurrent должен быть меньше размера пула соединений.
+ */
+@Configuration
+public class ExportConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExportExecutor exportExecutor(@Value("${shareit.export.max-concurrent:4}") int maxConcurrent, MeterRegistry meterRegistry) {
+        return new ExportExecutor(maxConcurrent, meterRegistry);
+    }
+}
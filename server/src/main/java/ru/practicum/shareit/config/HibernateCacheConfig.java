@@ -0,0 +1,53 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Кэш второго уровня Hibernate на локальном JCache-провайдере Caffeine.
+ * Выключен по умолчанию, включается свойством shareit.cache.second-level.enabled=true, регионы задаются в shareit.cache.regions.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.cache.second-level.enabled", havingValue = "true", matchIfMissing = false)
+@EnableConfigurationProperties(HibernateCacheProperties.class)
+@Slf4j
+public class HibernateCacheConfig {
+
+    private static final String CACHING_PROVIDER = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties, MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CACHING_PROVIDER).getCacheManager();
+        properties.getRegions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            configuration.setStatisticsEnabled(true);
+            JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(name, configuration));
+            log.info("Регион кэша второго уровня {}: размер {}, время жизни {}", name,
+                    region.getMaximumSize(), region.getExpireAfterWrite());
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put("hibernate.cache.use_second_level_cache", true);
+            hibernateProperties.put("hibernate.cache.region.factory_class", "jcache");
+            hibernateProperties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            hibernateProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+}
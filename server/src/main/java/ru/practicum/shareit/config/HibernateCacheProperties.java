@@ -0,0 +1,34 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки регионов кэша второго уровня Hibernate.
+ * Имя региона совпадает с регионом в аннотации {@code @Cache} сущности.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.cache")
+public class HibernateCacheProperties {
+
+    private SecondLevel secondLevel = new SecondLevel();
+    private Map<String, Region> regions = new HashMap<>();
+
+    /**
+     * Кэш второго уровня выключен по умолчанию: включать после замера SecondLevelCacheBenchmark
+     */
+    @Data
+    public static class SecondLevel {
+        private boolean enabled;
+    }
+
+    @Data
+    public static class Region {
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+}
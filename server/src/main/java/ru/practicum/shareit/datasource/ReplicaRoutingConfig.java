@@ -0,0 +1,91 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение с реплик БД: источник данных {@link ReplicaRoutingDataSource} вместо источника Spring Boot.
+ * Включается свойством shareit.datasource.routing.enabled, реплики задаются в shareit.datasource.replicas.
+ * Миграции Flyway выполняются на основной БД, на репликах - только при shareit.datasource.migrate-replicas
+ * (отдельные БД вместо реплик при локальной проверке).
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 ReplicaRoutingProperties properties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Replica> replicaProperties = properties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            ReplicaRoutingProperties.Replica replica = replicaProperties.get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + i;
+            HikariDataSource dataSource = replica(replica);
+            dataSource.setPoolName(name);
+            if (properties.isMigrateReplicas()) {
+                Flyway.configure()
+                        .dataSource(dataSource)
+                        .baselineOnMigrate(true)
+                        .load()
+                        .migrate();
+            }
+            replicas.put(name, dataSource);
+            log.info("Реплика БД {}: {}, пул {}", name, replica.getUrl(), replica.getMaximumPoolSize());
+        }
+        log.info("Транзакции только на чтение направляются на реплики ({}), окно read-your-writes {}",
+                properties.getSelection(), properties.getReadYourWritesWindow());
+        return new ReplicaRoutingDataSource(primary, replicas, properties, meterRegistry);
+    }
+
+    /**
+     * Соединение возвращается в пул после каждой транзакции, а не при закрытии сессии (open-in-view),
+     * чтобы следующая транзакция запроса выбрала источник заново
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaRoutingHibernateCustomizer() {
+        return hibernateProperties -> hibernateProperties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    private static HikariDataSource replica(ReplicaRoutingProperties.Replica replica) {
+        DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword());
+        if (replica.getDriverClassName() != null) {
+            builder.driverClassName(replica.getDriverClassName());
+        }
+        HikariDataSource dataSource = builder.build();
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        return dataSource;
+    }
+}
@@ -0,0 +1,172 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник данных, направляющий транзакции только на чтение на реплики, остальные - на основную БД.
+ * Соединение берётся при первом запросе к БД, когда признак readOnly транзакции уже известен.
+ * Реплика выбирается по кругу или по наименьшему числу занятых соединений пула при первом чтении HTTP-запроса
+ * и закрепляется за запросом: все его транзакции только на чтение идут в неё. Так ETag и тело ответа,
+ * прочитанные в разных транзакциях, не берутся с реплик с разным отставанием.
+ * <p>
+ * В течение окна read-your-writes после транзакции на запись пользователя из заголовка X-Sharer-User-Id
+ * его транзакции только на чтение также идут в основную БД, чтобы он видел свои изменения до репликации.
+ * Чтения вне обработки HTTP-запроса (фоновые задачи, outbox, выгрузки в отдельном потоке) всегда идут в основную БД:
+ * фоновая обработка не должна видеть отставшее состояние реплики.
+ * Метрика: shareit.datasource.connections с тегом target (primary или имя реплики).
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final Router router;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary,
+                                    Map<String, HikariDataSource> replicas,
+                                    ReplicaRoutingProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this(new Router(primary, replicas, properties, meterRegistry));
+    }
+
+    private ReplicaRoutingDataSource(Router router) {
+        super(router);
+        this.router = router;
+    }
+
+    @Override
+    public void close() {
+        router.primary.close();
+        router.replicas.values().forEach(HikariDataSource::close);
+    }
+
+    private static final class Router extends AbstractRoutingDataSource {
+
+        private static final String USER_ID = "X-Sharer-User-Id";
+        private static final String REPLICA = ReplicaRoutingDataSource.class.getName() + ".REPLICA";
+
+        private final HikariDataSource primary;
+        private final Map<String, HikariDataSource> replicas;
+        private final List<String> names;
+        private final ReplicaRoutingProperties.Selection selection;
+        private final Cache<Long, Boolean> recentWriters;
+        private final Map<String, Counter> connections = new HashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Router(HikariDataSource primary,
+                       Map<String, HikariDataSource> replicas,
+                       ReplicaRoutingProperties properties,
+                       MeterRegistry meterRegistry) {
+            this.primary = primary;
+            this.replicas = new LinkedHashMap<>(replicas);
+            this.names = new ArrayList<>(replicas.keySet());
+            this.selection = properties.getSelection();
+            this.recentWriters = properties.getReadYourWritesWindow().isZero() ? null : Caffeine.newBuilder()
+                    .maximumSize(properties.getReadYourWritesMaximumUsers())
+                    .expireAfterWrite(properties.getReadYourWritesWindow())
+                    .build();
+            Map<Object, Object> targets = new HashMap<>(replicas);
+            targets.put(PRIMARY, primary);
+            targets.keySet().forEach(name -> connections.put((String) name, Counter.builder("shareit.datasource.connections")
+                    .tag("target", (String) name)
+                    .register(meterRegistry)));
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            String target = target();
+            connections.get(target).increment();
+            return target;
+        }
+
+        private String target() {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                return PRIMARY;
+            }
+            HttpServletRequest request = currentRequest();
+            Long userId = request == null ? null : userId(request);
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (recentWriters != null && userId != null) {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+                return PRIMARY;
+            }
+            if (request == null || names.isEmpty()
+                    || recentWriters != null && userId != null && recentWriters.getIfPresent(userId) != null) {
+                return PRIMARY;
+            }
+            Object pinned = request.getAttribute(REPLICA);
+            if (pinned != null) {
+                return (String) pinned;
+            }
+            String replica = selection == ReplicaRoutingProperties.Selection.LEAST_LOADED ? leastLoaded() : roundRobin();
+            request.setAttribute(REPLICA, replica);
+            return replica;
+        }
+
+        private String roundRobin() {
+            return names.get(Math.floorMod(next.getAndIncrement(), names.size()));
+        }
+
+        /**
+         * Реплика с наименьшим числом занятых соединений; при равенстве - следующая по кругу
+         */
+        private String leastLoaded() {
+            int start = next.getAndIncrement();
+            String best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(Math.floorMod(start + i, names.size()));
+                HikariPoolMXBean pool = replicas.get(name).getHikariPoolMXBean();
+                int load = pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+                if (load < bestLoad) {
+                    best = name;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * HTTP-запрос, обрабатываемый текущим потоком; в фоновых потоках - null
+         */
+        private static HttpServletRequest currentRequest() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            return attributes instanceof ServletRequestAttributes ? ((ServletRequestAttributes) attributes).getRequest() : null;
+        }
+
+        private static Long userId(HttpServletRequest request) {
+            String userId = request.getHeader(USER_ID);
+            if (userId == null) {
+                return null;
+            }
+            try {
+                return Long.valueOf(userId);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки реплик БД для транзакций только на чтение.
+ * Основная БД задаётся свойствами spring.datasource.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.datasource")
+public class ReplicaRoutingProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+    private Selection selection = Selection.ROUND_ROBIN;
+    private Duration readYourWritesWindow = Duration.ZERO;
+    private long readYourWritesMaximumUsers = 100_000;
+    private boolean migrateReplicas;
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Сильные ETag ответов, вычисляемые по счётчикам версий сущностей без загрузки DTO
+ */
+public class EntityTags {
+
+    private EntityTags() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param parts Id, версии и прочие значения, от которых зависит ответ
+     * @return ETag в кавычках
+     */
+    public static String of(Object... parts) {
+        String value = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining(":"));
+        return "\"" + DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import ru.practicum.shareit.booking.controller.BookingController;
+
+/**
+ * Применение параметра запроса fields к JSON-ответу контроллера бронирований
+ */
+@RestControllerAdvice(assignableTypes = BookingController.class)
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FIELDS = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(FIELDS);
+        if (fields != null && !fields.isBlank()) {
+            bodyContainer.setFilters(new SimpleFilterProvider().addFilter(SparseFieldsFilter.ID, new SparseFieldsFilter(fields)));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.item.model.ItemSummaryDto;
+import ru.practicum.shareit.user.model.UserSummaryDto;
+
+/**
+ * Разреженные ответы по параметру fields: DTO с поддержкой fields получают фильтр {@link SparseFieldsFilter}
+ * через mix-in, без параметра фильтр сериализует все поля. Фильтр запроса задаёт {@link SparseFieldsAdvice}.
+ */
+@Configuration
+public class SparseFieldsConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsCustomizer() {
+        return builder -> builder
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()))
+                .mixIn(BookingDto.class, SparseFields.class)
+                .mixIn(ItemSummaryDto.class, SparseFields.class)
+                .mixIn(UserSummaryDto.class, SparseFields.class);
+    }
+
+    @JsonFilter(SparseFieldsFilter.ID)
+    private abstract static class SparseFields {
+    }
+}
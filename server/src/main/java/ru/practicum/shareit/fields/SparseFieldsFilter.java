@@ -0,0 +1,80 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Фильтр Jackson для разреженных ответов: сериализуются только поля из списка fields.
+ * Вложенные поля задаются через точку (item.name), поле объекта без уточнения сериализуется целиком.
+ * Путь поля считается от элемента ответа, массивы в пути не учитываются.
+ */
+public class SparseFieldsFilter extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "sparseFields";
+
+    private final Set<String> fields;
+    private final Set<String> paths = new HashSet<>();
+
+    /**
+     * @param fields Поля через запятую, например id,status,item.name
+     */
+    public SparseFieldsFilter(String fields) {
+        this.fields = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        this.fields.forEach(field -> {
+            for (int i = field.indexOf('.'); i > 0; i = field.indexOf('.', i + 1)) {
+                paths.add(field.substring(0, i));
+            }
+            paths.add(field);
+        });
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+        if (include(path(gen.getOutputContext(), writer.getName()))) {
+            writer.serializeAsField(pojo, gen, provider);
+        } else if (!gen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, gen, provider);
+        }
+    }
+
+    /**
+     * Поле входит в ответ, если оно запрошено, лежит на пути к запрошенному полю или вложено в запрошенный объект
+     */
+    private boolean include(String path) {
+        if (paths.contains(path)) {
+            return true;
+        }
+        for (int i = path.indexOf('.'); i > 0; i = path.indexOf('.', i + 1)) {
+            if (fields.contains(path.substring(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Путь поля по именам полей родительских объектов. Контекст сериализуемого объекта хранит имя
+     * последнего записанного в нём поля, поэтому имена берутся начиная с родителя
+     */
+    private static String path(JsonStreamContext context, String name) {
+        StringBuilder path = new StringBuilder(name);
+        for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent.inObject() && parent.getCurrentName() != null) {
+                path.insert(0, '.').insert(0, parent.getCurrentName());
+            }
+        }
+        return path.toString();
+    }
+}
@@ -3,11 +3,19 @@ package ru.practicum.shareit.item.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.batch.model.BatchResultDto;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.model.ItemImportDto;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -17,6 +25,7 @@ import java.util.List;
 public class ItemController {
     private static final String USER_ID = "X-Sharer-User-Id";
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -26,6 +35,14 @@ public class ItemController {
         return itemService.create(itemDto, userId);
     }
 
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ItemImportDto importItems(@RequestHeader(USER_ID) Long userId,
+                                     HttpServletRequest request) throws IOException {
+        log.info("Запрос POST: importItems(Long userId) на загрузку вещей владельца с ID = {}.", userId);
+        return itemImporter.importItems(request.getInputStream(), userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader(USER_ID) Long userId,
                           @RequestBody ItemDto itemDto,
@@ -36,25 +53,40 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto get(@PathVariable Long itemId,
-                       @RequestHeader(USER_ID) Long userId) {
+                       @RequestHeader(USER_ID) Long userId,
+                       WebRequest request) {
         log.info("Запрос GET: get(Long itemId, Long userId) на получение вещи с ID = {}.", itemId);
+        if (request.checkNotModified(itemService.getETag(itemId, userId))) {
+            return null;
+        }
         return itemService.get(itemId, userId);
     }
 
+    @GetMapping(params = "ids")
+    public List<BatchResultDto<ItemDto>> getByIds(@RequestParam List<Long> ids,
+                                                  @RequestHeader(USER_ID) Long userId) {
+        log.info("Запрос GET: getByIds(List<Long> ids, Long userId) на пакетное получение вещей {}.", ids);
+        return itemService.getByIds(ids, userId);
+    }
+
     @GetMapping
-    public List<ItemDto> getAll(@RequestHeader(USER_ID) Long userId,
-                                @RequestParam(defaultValue = "0") Integer from,
-                                @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запрос GET: getAll(Long userId,Integer from, Integer size) на получение всех вещей постранично.");
-        return itemService.getAll(userId, from, size);
+    public ResponseEntity<List<ItemDto>> getAll(@RequestHeader(USER_ID) Long userId,
+                                                @RequestParam(defaultValue = "0") Integer from,
+                                                @RequestParam(defaultValue = "10") Integer size,
+                                                @RequestParam(required = false) String cursor) {
+        log.info("Запрос GET: getAll(Long userId,Integer from, Integer size, String cursor) на получение всех вещей постранично.");
+        return PageCursor.toResponse(itemService.getAll(userId, from, size, cursor), size,
+                item -> PageCursor.encode(item.getId()));
     }
 
     @GetMapping("/search")
-    public List<ItemDto> find(@RequestParam String text,
-                              @RequestParam(defaultValue = "0") Integer from,
-                              @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запрос GET: find(String text, Integer from, Integer size) на получение всех вещей, постранично, содержащих '{}' в названии или описании.", text);
-        return itemService.find(text, from, size);
+    public ResponseEntity<List<ItemDto>> find(@RequestParam String text,
+                                              @RequestParam(defaultValue = "0") Integer from,
+                                              @RequestParam(defaultValue = "10") Integer size,
+                                              @RequestParam(required = false) String cursor) {
+        log.info("Запрос GET: find(String text, Integer from, Integer size, String cursor) на получение всех вещей, постранично, содержащих '{}' в названии или описании.", text);
+        return PageCursor.toResponse(itemService.find(text, from, size, cursor), size,
+                item -> PageCursor.encode(item.getId()));
     }
 
     @DeleteMapping("/{itemId}")
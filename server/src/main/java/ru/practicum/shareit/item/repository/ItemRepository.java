@@ -1,18 +1,44 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchView;
+import ru.practicum.shareit.item.model.ItemVersionView;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @Override
+    @EntityGraph("Item.details")
+    Optional<Item> findById(Long id);
+
     List<Item> findAllByOwnerId(Long userId, Pageable pageable);
 
-    List<Item> findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(String name, String description, Pageable pageable);
+    List<Item> findAllByOwnerIdAndIdGreaterThan(Long userId, Long id, Pageable pageable);
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    List<ItemSearchView> findAllByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
     List<Item> findAllByRequestIn(List<ItemRequest> itemRequests);
+
+    @EntityGraph("Item.details")
+    List<Item> findAllByIdIn(Collection<Long> ids);
+
+    @Query("select i.owner.id as ownerId, i.version as version, " +
+            "(select count(c) from Comment c where c.item.id = i.id) as commentCount, " +
+            "(select max(c.id) from Comment c where c.item.id = i.id) as lastCommentId, " +
+            "(select sum(a.version) from Comment c join c.author a where c.item.id = i.id) as commentAuthorVersionSum " +
+            "from Item i where i.id = :itemId")
+    Optional<ItemVersionView> findVersionById(@Param("itemId") Long itemId);
 }
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFound;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.model.ItemImportDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потоковая загрузка вещей владельца из NDJSON: строки читаются по одной и сохраняются частями
+ * по shareit.import.chunk-size, каждая часть - в отдельной транзакции пакетными вставками.
+ * При ошибке в строке уже сохранённые части не откатываются.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemImporter {
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final ItemSearchIndex itemSearchIndex;
+
+    @Value("${shareit.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Метод загрузки вещей
+     *
+     * @param input  Поток NDJSON, по одному объекту DTO вещи в строке
+     * @param userId Id владельца вещей
+     * @return Количество загруженных вещей и частей
+     * @throws NotFound                 Пользователь или запрос вещи не найден
+     * @throws IllegalArgumentException Некорректная строка, в сообщении - номер строки
+     */
+    public ItemImportDto importItems(InputStream input, Long userId) {
+        User owner = UserMapper.toModel(userService.get(userId));
+        long imported = 0;
+        int chunks = 0;
+        List<ItemDto> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<ItemDto> lines = objectMapper.readerFor(ItemDto.class).readValues(input)) {
+            while (lines.hasNextValue()) {
+                chunk.add(lines.nextValue());
+                if (chunk.size() == chunkSize) {
+                    imported += save(chunk, owner);
+                    chunks++;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(String.format("Строка %d: %s",
+                    e.getLocation() == null ? imported + chunk.size() + 1 : e.getLocation().getLineNr(),
+                    e.getOriginalMessage()));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Ошибка чтения вещей: " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            imported += save(chunk, owner);
+            chunks++;
+        }
+        log.debug("Загружено {} вещей владельца с ID = {} частями: {}", imported, userId, chunks);
+        return ItemImportDto.builder()
+                .imported(imported)
+                .chunks(chunks)
+                .build();
+    }
+
+    private int save(List<ItemDto> chunk, User owner) {
+        Integer saved = transactionTemplate.execute(status -> {
+            Map<Long, ItemRequest> requests = new HashMap<>();
+            List<Item> items = new ArrayList<>(chunk.size());
+            for (ItemDto itemDto : chunk) {
+                Item item = ItemMapper.toModel(itemDto);
+                item.setId(null);
+                item.setOwner(owner);
+                if (itemDto.getRequestId() != null) {
+                    item.setRequest(requests.computeIfAbsent(itemDto.getRequestId(), itemRequestService::getRequest));
+                }
+                items.add(item);
+            }
+            itemRepository.saveAll(items).forEach(itemSearchIndex::indexAfterCommit);
+            itemRepository.flush();
+            entityManager.clear();
+            return items.size();
+        });
+        chunk.clear();
+        return saved == null ? 0 : saved;
+    }
+}
@@ -0,0 +1,298 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCommit;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания доступных вещей.
+ * Поиск подстроки: пересечение списков триграмм запроса и проверка подстроки у кандидатов.
+ * Для запросов из одного-двух символов индексируются также униграммы и биграммы.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, String[]> documents = new TreeMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    @Value("${shareit.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    /**
+     * Полное построение индекса при старте
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            long lastId = 0;
+            List<ItemSearchView> batch;
+            do {
+                batch = itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildBatchSize));
+                for (ItemSearchView item : batch) {
+                    put(item.getId(), item.getName(), item.getDescription());
+                    lastId = item.getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+            log.info("Индекс поиска вещей построен, количество вещей {}, триграмм {}", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Поиск Id доступных вещей, содержащих текст в названии или описании, в порядке возрастания Id
+     *
+     * @param text    Искомый текст
+     * @param afterId Id, после которого начинается выдача
+     * @param from    Индекс первого элемента
+     * @param size    Количество элементов
+     * @return Список Id вещей
+     */
+    public List<Long> search(String text, long afterId, int from, int size) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Iterator<Long> candidates = candidates(query, afterId);
+            List<Long> ids = new ArrayList<>(size);
+            int skipped = 0;
+            while (candidates.hasNext() && ids.size() < size) {
+                Long id = candidates.next();
+                if (matches(documents.get(id), query)) {
+                    if (skipped < from) {
+                        skipped++;
+                    } else {
+                        ids.add(id);
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Обновление вещи в индексе после фиксации транзакции
+     *
+     * @param item Вещь
+     */
+    public void indexAfterCommit(Item item) {
+        Long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                delete(id);
+                if (available) {
+                    put(id, name, description);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Удаление вещи из индекса после фиксации транзакции
+     *
+     * @param id Id вещи
+     */
+    public void removeAfterCommit(Long id) {
+        removeAfterCommit(List.of(id));
+    }
+
+    /**
+     * Удаление вещей из индекса после фиксации транзакции
+     *
+     * @param ids Id вещей
+     */
+    public void removeAfterCommit(Collection<Long> ids) {
+        afterCommit(() -> remove(ids));
+    }
+
+    private void remove(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::delete);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Iterator<Long> candidates(String query, long afterId) {
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : grams(query, Math.min(GRAM, query.length()))) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return Collections.emptyIterator();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists.get(0);
+        List<Postings> others = lists.subList(1, lists.size());
+        return new Iterator<>() {
+            private int position = advance(shortest.upperBound(afterId));
+
+            @Override
+            public boolean hasNext() {
+                return position < shortest.size;
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long id = shortest.ids[position];
+                position = advance(position + 1);
+                return id;
+            }
+
+            private int advance(int from) {
+                int i = from;
+                while (i < shortest.size && !containsAll(others, shortest.ids[i])) {
+                    i++;
+                }
+                return i;
+            }
+        };
+    }
+
+    private static boolean containsAll(List<Postings> lists, long id) {
+        for (Postings list : lists) {
+            if (list.indexOf(id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String[] document, String query) {
+        return document != null && (document[0].contains(query) || document[1].contains(query));
+    }
+
+    private void put(Long id, String name, String description) {
+        String[] document = {normalize(name), normalize(description)};
+        documents.put(id, document);
+        for (long gram : allGrams(document)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    private void delete(Long id) {
+        String[] document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (long gram : allGrams(document)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Униграммы, биграммы и триграммы названия и описания
+     */
+    private static Set<Long> allGrams(String[] document) {
+        Set<Long> grams = new HashSet<>();
+        for (int n = 1; n <= GRAM; n++) {
+            grams.addAll(grams(document[0], n));
+            grams.addAll(grams(document[1], n));
+        }
+        return grams;
+    }
+
+    /**
+     * N-граммы строки, упакованные в long по 16 бит на символ; длина n хранится в старших битах
+     */
+    private static Set<Long> grams(String text, int n) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + n <= text.length(); i++) {
+            long gram = (long) n << 48;
+            for (int j = 0; j < n; j++) {
+                gram |= (long) text.charAt(i + j) << (16 * (GRAM - 1 - j));
+            }
+            grams.add(gram);
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Отсортированный список Id вещей. Новые вещи получают возрастающие Id, поэтому добавление обычно в конец.
+     */
+    private static final class Postings {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            int position = size == 0 || ids[size - 1] < id ? size : indexOf(id);
+            if (position >= 0 && position < size) {
+                return;
+            }
+            if (position < 0) {
+                position = -position - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = indexOf(id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        /**
+         * @return Позиция первого Id больше заданного
+         */
+        int upperBound(long id) {
+            int position = indexOf(id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+}
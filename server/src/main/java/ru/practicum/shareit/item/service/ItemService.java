@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.batch.model.BatchResultDto;
 import ru.practicum.shareit.exception.NotFound;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.Item;
@@ -42,26 +43,51 @@ public interface ItemService {
      */
     ItemDto get(Long itemId, Long userId);
 
+    /**
+     * Метод получения ETag вещи по версиям без загрузки DTO
+     *
+     * @param itemId Id вещи
+     * @param userId Id пользователя
+     * @return ETag ответа {@link #get(Long, Long)}
+     * @throws NotFound Пользователь не найден
+     * @throws NotFound Вещь не найдена
+     */
+    String getETag(Long itemId, Long userId);
+
+    /**
+     * Метод пакетного получения вещей одним запросом
+     *
+     * @param itemIds Список Id вещей
+     * @param userId  Id пользователя
+     * @return Результаты в порядке Id, для отсутствующих вещей - ошибка
+     * @throws NotFound Пользователь не найден
+     */
+    List<BatchResultDto<ItemDto>> getByIds(List<Long> itemIds, Long userId);
+
     /**
      * Метод получения всех вещей владельца, постранично
      *
      * @param userId Id владельца вещи
      * @param from   Индекс первого элемента
      * @param size   Количество элементов для отображения
+     * @param cursor Курсор следующей страницы, если указан, то from не используется
      * @return Список DTO вещей
-     * @throws NotFound Пользователь не найден
+     * @throws NotFound                 Пользователь не найден
+     * @throws IllegalArgumentException Некорректный курсор
      */
-    List<ItemDto> getAll(Long userId, Integer from, Integer size);
+    List<ItemDto> getAll(Long userId, Integer from, Integer size, String cursor);
 
     /**
      * Метод поиска вещи, постранично, по наименованию или описанию
      *
-     * @param text Искомый текст
-     * @param from Индекс первого элемента
-     * @param size Количество элементов для отображения
+     * @param text   Искомый текст
+     * @param from   Индекс первого элемента
+     * @param size   Количество элементов для отображения
+     * @param cursor Курсор следующей страницы, если указан, то from не используется
      * @return Список DTO вещей
+     * @throws IllegalArgumentException Некорректный курсор
      */
-    List<ItemDto> find(String text, Integer from, Integer size);
+    List<ItemDto> find(String text, Integer from, Integer size, String cursor);
 
     /**
      * Метод удаление вещи
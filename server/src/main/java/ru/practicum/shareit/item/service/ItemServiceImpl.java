@@ -3,14 +3,15 @@ package ru.practicum.shareit.item.service;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.batch.model.BatchResultDto;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingShortDto;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.NotFound;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.ItemMapper;
@@ -18,8 +19,10 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.model.ItemVersionView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.UserMapper;
@@ -28,6 +31,7 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +44,13 @@ public class ItemServiceImpl implements ItemService {
     private final BookingService bookingService;
     private final CommentRepository commentRepository;
     private final ItemRequestService itemRequestService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private static final Sort SORT_BY_ID = Sort.by(Sort.Direction.ASC, "id");
+    /**
+     * Наибольшее число обращений к индексу поиска для заполнения страницы, если часть найденных вещей не прочитана
+     */
+    private static final int SEARCH_ROUNDS = 3;
     private final Sort sortComments = Sort.by(Sort.Direction.DESC, "created");
 
     @Override
@@ -51,6 +62,7 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequestService.getRequest(itemDto.getRequestId()));
         }
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.indexAfterCommit(savedItem);
         log.debug("Вещь добавлена {}", savedItem);
         return ItemMapper.toDto(savedItem);
     }
@@ -75,6 +87,7 @@ public class ItemServiceImpl implements ItemService {
             itemToUpdate.setAvailable(itemDto.getAvailable());
         }
         Item updatedItem = itemRepository.save(itemToUpdate);
+        itemSearchIndex.indexAfterCommit(updatedItem);
         log.debug("Вещь обновлена {}", updatedItem);
 
         return ItemMapper.toDto(updatedItem);
@@ -97,59 +110,101 @@ public class ItemServiceImpl implements ItemService {
             return itemDto;
         }
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> allBooking = bookingService.findAllByItemInAndStatus(Collections.singletonList(item), BookingStatus.APPROVED);
-
-        itemDto.setLastBooking(BookingMapper.toShortDto(allBooking.stream()
-                .filter(booking -> (booking.getStart().isBefore(now))).max(Comparator.comparing(Booking::getStart)).orElse(null)));
-
-        itemDto.setNextBooking(BookingMapper.toShortDto(allBooking.stream()
-                .filter(booking -> (booking.getStart().isAfter(now))).min(Comparator.comparing(Booking::getStart)).orElse(null)));
+        List<Long> itemIds = Collections.singletonList(itemId);
+        itemDto.setLastBooking(bookingService.findLastBookings(itemIds, now).get(itemId));
+        itemDto.setNextBooking(bookingService.findNextBookings(itemIds, now).get(itemId));
 
         return itemDto;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> getAll(Long userId, Integer from, Integer size) {
+    public String getETag(Long itemId, Long userId) {
         userService.existsById(userId);
-        Pageable pageable = PageRequest.of(
-                from == 0 ? 0 : (from / size),
-                size,
-                Sort.by(Sort.Direction.ASC, "id"));
-
-        List<Item> items = itemRepository.findAllByOwnerId(userId, pageable);
+        ItemVersionView item = itemRepository.findVersionById(itemId).orElseThrow(() -> new NotFound("вещь", itemId));
+        if (!item.getOwnerId().equals(userId)) {
+            return EntityTags.of(itemId, item.getVersion(), item.getCommentCount(), item.getLastCommentId(),
+                    item.getCommentAuthorVersionSum());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = Collections.singletonList(itemId);
+        BookingShortDto lastBooking = bookingService.findLastBookings(itemIds, now).get(itemId);
+        BookingShortDto nextBooking = bookingService.findNextBookings(itemIds, now).get(itemId);
+        return EntityTags.of(itemId, item.getVersion(), item.getCommentCount(), item.getLastCommentId(),
+                item.getCommentAuthorVersionSum(), userId,
+                lastBooking == null ? null : lastBooking.getId(),
+                nextBooking == null ? null : nextBooking.getId());
+    }
 
-        Map<Item, List<Booking>> allBooking = bookingService.findAllByItemInAndStatus(items, BookingStatus.APPROVED)
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchResultDto<ItemDto>> getByIds(List<Long> itemIds, Long userId) {
+        userService.existsById(userId);
+        Map<Long, Item> items = itemIds.isEmpty() ? Map.of() : itemRepository.findAllByIdIn(itemIds)
                 .stream()
-                .collect(Collectors.groupingBy(Booking::getItem, Collectors.toList()));
-
-        Map<Item, List<Comment>> allComments = commentRepository.findAllByItemIdIn(items.stream().map(Item::getId).collect(Collectors.toList()), sortComments)
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Long> foundIds = new ArrayList<>(items.keySet());
+        List<Long> ownIds = items.values().stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingShortDto> lastBookings = bookingService.findLastBookings(ownIds, now);
+        Map<Long, BookingShortDto> nextBookings = bookingService.findNextBookings(ownIds, now);
+        Map<Long, List<CommentDto>> comments = foundIds.isEmpty() ? Map.of() : commentRepository
+                .findAllByItemIdIn(foundIds, sortComments)
                 .stream()
-                .collect(Collectors.groupingBy(Comment::getItem, Collectors.toList()));
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toDto, Collectors.toList())));
+
+        return itemIds.stream()
+                .map(itemId -> {
+                    Item item = items.get(itemId);
+                    if (item == null) {
+                        return BatchResultDto.<ItemDto>error(itemId, new NotFound("вещь", itemId).getMessage());
+                    }
+                    ItemDto itemDto = ItemMapper.toDto(item);
+                    itemDto.setComments(comments.getOrDefault(itemId, new ArrayList<>()));
+                    itemDto.setLastBooking(lastBookings.get(itemId));
+                    itemDto.setNextBooking(nextBookings.get(itemId));
+                    return BatchResultDto.of(itemId, itemDto);
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> getAll(Long userId, Integer from, Integer size, String cursor) {
+        userService.existsById(userId);
+        List<Item> items;
+        if (cursor != null) {
+            items = itemRepository.findAllByOwnerIdAndIdGreaterThan(userId, PageCursor.decode(cursor).getId(),
+                    PageRequest.of(0, size, SORT_BY_ID));
+        } else {
+            items = itemRepository.findAllByOwnerId(userId, PageRequest.of(
+                    from == 0 ? 0 : (from / size),
+                    size,
+                    SORT_BY_ID));
+        }
 
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
         LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingShortDto> lastBookings = bookingService.findLastBookings(itemIds, now);
+        Map<Long, BookingShortDto> nextBookings = bookingService.findNextBookings(itemIds, now);
+
+        Map<Long, List<Comment>> allComments = commentRepository.findAllByItemIdIn(itemIds, sortComments)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(), Collectors.toList()));
 
         List<ItemDto> dtoItems = new ArrayList<>();
 
         for (Item item : items) {
 
             ItemDto itemDto = ItemMapper.toDto(item);
-
-            if (allBooking.get(item) != null) {
-                itemDto.setLastBooking(BookingMapper.toShortDto(allBooking.get(item)
-                        .stream()
-                        .filter(booking -> (booking.getStart().isBefore(now)))
-                        .max(Comparator.comparing(Booking::getStart))
-                        .orElse(null)));
-
-                itemDto.setNextBooking(BookingMapper.toShortDto(allBooking.get(item)
-                        .stream()
-                        .filter(booking -> (booking.getStart().isAfter(now)))
-                        .min(Comparator.comparing(Booking::getStart))
-                        .orElse(null)));
-            }
-            if (allComments.get(item) != null) {
-                itemDto.setComments(allComments.get(item)
+            itemDto.setLastBooking(lastBookings.get(item.getId()));
+            itemDto.setNextBooking(nextBookings.get(item.getId()));
+            if (allComments.get(item.getId()) != null) {
+                itemDto.setComments(allComments.get(item.getId())
                         .stream()
                         .map(CommentMapper::toDto)
                         .collect(Collectors.toList()));
@@ -163,14 +218,32 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> find(String text, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(
-                from == 0 ? 0 : (from / size),
-                size);
-        return itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(text, text, pageable)
-                .stream()
-                .map(ItemMapper::toDto)
-                .collect(Collectors.toList());
+    public List<ItemDto> find(String text, Integer from, Integer size, String cursor) {
+        long afterId = cursor == null ? 0L : PageCursor.decode(cursor).getId();
+        int offset = cursor == null ? from : 0;
+        List<ItemDto> found = new ArrayList<>(size);
+        for (int round = 0; round < SEARCH_ROUNDS && found.size() < size; round++) {
+            int missing = size - found.size();
+            List<Long> ids = itemSearchIndex.search(text, afterId, offset, missing);
+            if (ids.isEmpty()) {
+                break;
+            }
+            // Вещи, которых нет в чтении (удалены или ещё не видны на реплике), пропускаются; индекс меняется только после фиксации записи
+            Map<Long, Item> items = itemRepository.findAllById(ids)
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            ids.stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
+                    .map(ItemMapper::toDto)
+                    .forEach(found::add);
+            if (ids.size() < missing) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            offset = 0;
+        }
+        return found;
     }
 
     @Override
@@ -182,6 +255,8 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFound("вещь", itemId);
         }
         itemRepository.deleteById(itemId);
+        bookingIntervalIndex.evictAfterCommit(itemId);
+        itemSearchIndex.removeAfterCommit(itemId);
     }
 
     @Override
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Время выполнения публичных методов сервисов (*ServiceImpl) с гистограммой перцентилей.
+ * Таймер shareit.service с тегами class, method, state (аргумент state метода, если есть) и exception.
+ * Неизвестные значения state сводятся к UNKNOWN, чтобы число таймеров оставалось ограниченным.
+ * Таймеры создаются один раз на сочетание тегов, на вызов приходится поиск в двух картах.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private static final String NONE = "none";
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final Set<String> STATES = Arrays.stream(BookingState.values())
+            .map(Enum::name)
+            .collect(Collectors.toSet());
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, MethodTimers> methods = new ConcurrentHashMap<>();
+
+    @Around("execution(public * ru.practicum.shareit..*ServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodTimers timers = methods.computeIfAbsent(signature.getMethod(), method -> new MethodTimers(signature));
+        long started = System.nanoTime();
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timers.get(joinPoint.getArgs(), exception).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private final class MethodTimers {
+        private final String className;
+        private final String methodName;
+        private final int stateIndex;
+        private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+        private MethodTimers(MethodSignature signature) {
+            className = signature.getDeclaringType().getSimpleName();
+            methodName = signature.getName();
+            String[] parameterNames = signature.getParameterNames();
+            stateIndex = parameterNames == null ? -1 : Arrays.asList(parameterNames).indexOf("state");
+        }
+
+        private Timer get(Object[] args, String exception) {
+            String state = stateIndex < 0 ? NONE : toStateTag(args[stateIndex]);
+            String key = stateIndex < 0 && NONE.equals(exception) ? NONE : state + ':' + exception;
+            Timer timer = timers.get(key);
+            if (timer != null) {
+                return timer;
+            }
+            return timers.computeIfAbsent(key, ignored -> Timer.builder("shareit.service")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("state", state)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+
+        private String toStateTag(Object state) {
+            if (state == null) {
+                return NONE;
+            }
+            return STATES.contains(state.toString()) ? state.toString() : UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор для постраничной выдачи по ключу сортировки и Id последнего элемента страницы
+ */
+@Getter
+public class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime sortKey;
+    private final Long id;
+
+    private PageCursor(LocalDateTime sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public static String encode(LocalDateTime sortKey, Long id) {
+        String value = (sortKey == null ? "" : sortKey.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(Long id) {
+        return encode(null, id);
+    }
+
+    /**
+     * Ответ со страницей и курсором следующей страницы в заголовке, если страница заполнена
+     *
+     * @param page     Страница
+     * @param size     Размер страницы
+     * @param cursorOf Курсор по последнему элементу страницы
+     * @return Ответ
+     */
+    public static <T> ResponseEntity<List<T>> toResponse(List<T> page, Integer size, Function<T, String> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(page.size() - 1)));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Разбор курсора
+     *
+     * @param cursor Курсор
+     * @return Ключ сортировки и Id
+     * @throws IllegalArgumentException Некорректный курсор
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            String sortKey = value.substring(0, separator);
+            return new PageCursor(sortKey.isEmpty() ? null : LocalDateTime.parse(sortKey),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    /**
+     * @return Ключ сортировки, обязательный для курсоров по дате
+     * @throws IllegalArgumentException В курсоре нет ключа сортировки
+     */
+    public LocalDateTime getRequiredSortKey() {
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Некорректный курсор: нет ключа сортировки");
+        }
+        return sortKey;
+    }
+}
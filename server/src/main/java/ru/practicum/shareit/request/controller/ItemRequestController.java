@@ -3,7 +3,10 @@ package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -32,17 +35,23 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> get(@RequestHeader(USER_ID) Long userId,
-                                    @RequestParam(defaultValue = "0") Integer from,
-                                    @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запрос GET: get(Long userId, Integer from, Integer size) получения списка запросов, созданных другими пользователями, постранично.");
-        return itemRequestService.get(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> get(@RequestHeader(USER_ID) Long userId,
+                                                    @RequestParam(defaultValue = "0") Integer from,
+                                                    @RequestParam(defaultValue = "10") Integer size,
+                                                    @RequestParam(required = false) String cursor) {
+        log.info("Запрос GET: get(Long userId, Integer from, Integer size, String cursor) получения списка запросов, созданных другими пользователями, постранично.");
+        return PageCursor.toResponse(itemRequestService.get(userId, from, size, cursor), size,
+                itemRequest -> PageCursor.encode(itemRequest.getCreated(), itemRequest.getId()));
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto get(@RequestHeader(USER_ID) Long userId,
-                              @PathVariable Long requestId) {
+                              @PathVariable Long requestId,
+                              WebRequest request) {
         log.info("Запрос GET: get(Long userId, Long requestId) получение данных об одном конкретном запросе.");
+        if (request.checkNotModified(itemRequestService.getETag(userId, requestId))) {
+            return null;
+        }
         return itemRequestService.get(userId, requestId);
     }
 }
@@ -2,14 +2,33 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestVersionView;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequestorIdOrderByCreatedAsc(Long userId);
 
     List<ItemRequest> findAllByRequestorIdNot(Long userId, Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.requestor.id <> :userId " +
+            "and (r.created > :cursorCreated or (r.created = :cursorCreated and r.id > :cursorId))")
+    List<ItemRequest> findPageByRequestorIdNot(@Param("userId") Long userId,
+                                               @Param("cursorCreated") LocalDateTime cursorCreated,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable pageable);
+
+    @Query("select r.version as version, " +
+            "(select count(i) from Item i where i.request.id = r.id) as itemCount, " +
+            "(select max(i.id) from Item i where i.request.id = r.id) as lastItemId, " +
+            "(select sum(i.version) from Item i where i.request.id = r.id) as itemVersionSum " +
+            "from ItemRequest r where r.id = :requestId")
+    Optional<ItemRequestVersionView> findVersionById(@Param("requestId") Long requestId);
 }
@@ -32,10 +32,12 @@ public interface ItemRequestService {
      * @param userId Id владельца запросов
      * @param from   Индекс первого элемента
      * @param size   Количество элементов для отображения
+     * @param cursor Курсор следующей страницы, если указан, то from не используется
      * @return Список DTO объектов запроса
-     * @throws NotFound пользователь не найден
+     * @throws NotFound                 пользователь не найден
+     * @throws IllegalArgumentException некорректный курсор
      */
-    List<ItemRequestDto> get(Long userId, Integer from, Integer size);
+    List<ItemRequestDto> get(Long userId, Integer from, Integer size, String cursor);
 
     /**
      * Метод получения данных об одном конкретном запросе.
@@ -48,6 +50,17 @@ public interface ItemRequestService {
      */
     ItemRequestDto get(Long userId, Long requestId);
 
+    /**
+     * Метод получения ETag запроса по версиям без загрузки DTO
+     *
+     * @param userId    Id пользователя
+     * @param requestId Id запроса
+     * @return ETag ответа {@link #get(Long, Long)}
+     * @throws NotFound пользователь не найден
+     * @throws NotFound запрос не найден
+     */
+    String getETag(Long userId, Long requestId);
+
     /**
      * Метод получения данных об одном конкретном запросе.
      *
@@ -8,13 +8,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.NotFound;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequestVersionView;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -31,6 +34,7 @@ import java.util.stream.Collectors;
 @AllArgsConstructor(onConstructor_ = {@Lazy})
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort SORT_BY_CREATED = Sort.by(Sort.Direction.ASC, "created", "id");
     private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
     private final ItemService itemService;
@@ -56,13 +60,20 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemRequestDto> get(Long userId, Integer from, Integer size) {
+    public List<ItemRequestDto> get(Long userId, Integer from, Integer size, String cursor) {
         userService.existsById(userId);
-        Pageable pageable = PageRequest.of(
-                from == 0 ? 0 : (from / size),
-                size,
-                Sort.by(Sort.Direction.ASC, "created"));
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorIdNot(userId, pageable);
+        List<ItemRequest> itemRequests;
+        if (cursor != null) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            itemRequests = itemRequestRepository.findPageByRequestorIdNot(userId, pageCursor.getRequiredSortKey(),
+                    pageCursor.getId(), PageRequest.of(0, size, SORT_BY_CREATED));
+        } else {
+            Pageable pageable = PageRequest.of(
+                    from == 0 ? 0 : (from / size),
+                    size,
+                    SORT_BY_CREATED);
+            itemRequests = itemRequestRepository.findAllByRequestorIdNot(userId, pageable);
+        }
         return setItemsToItemRequestAndTransformToDto(itemRequests);
     }
 
@@ -79,6 +90,16 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getETag(Long userId, Long requestId) {
+        userService.existsById(userId);
+        ItemRequestVersionView itemRequest = itemRequestRepository.findVersionById(requestId)
+                .orElseThrow(() -> new NotFound("запрос", requestId));
+        return EntityTags.of(requestId, itemRequest.getVersion(), itemRequest.getItemCount(),
+                itemRequest.getLastItemId(), itemRequest.getItemVersionSum());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ItemRequest getRequest(Long requestId) {
@@ -93,14 +114,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      */
 
     private List<ItemRequestDto> setItemsToItemRequestAndTransformToDto(List<ItemRequest> itemRequests) {
-        Map<ItemRequest, List<Item>> allItems = itemService.findAllByRequestIn(itemRequests)
+        Map<Long, List<Item>> allItems = itemService.findAllByRequestIn(itemRequests)
                 .stream()
-                .collect(Collectors.groupingBy(Item::getRequest, Collectors.toList()));
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(), Collectors.toList()));
 
         List<ItemRequestDto> itemRequestDtos = new ArrayList<>();
 
         for (ItemRequest itemRequest : itemRequests) {
-            List<Item> itemList = allItems.get(itemRequest);
+            List<Item> itemList = allItems.get(itemRequest.getId());
             if (itemList == null) {
                 itemList = new ArrayList<>();
             }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Учёт SQL по HTTP-запросам: источник данных оборачивается прокси datasource-proxy,
+ * счётчики запроса ведёт {@link SqlAccountingFilter}.
+ * Включается свойством shareit.sql.accounting.enabled, бюджет задаётся в shareit.sql.budget.statements.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourceProxy() {
+        SqlAccountingListener listener = new SqlAccountingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(listener)
+                        .methodListener(listener)
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlAccountingFilter> sqlAccountingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.sql.budget.statements:20}") long statementBudget) {
+        FilterRegistrationBean<SqlAccountingFilter> registration = new FilterRegistrationBean<>(
+                new SqlAccountingFilter(meterRegistry, statementBudget));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Учёт SQL на каждый HTTP-запрос. Запросы сверх бюджета пишутся в лог с предупреждением.
+ * Метрики по шаблону эндпоинта: shareit.sql.statements, shareit.sql.rows и shareit.sql.time.
+ * <p>
+ * Итоговые счётчики запроса, включая запросы при сериализации ответа, сохраняются в атрибуте
+ * {@link #STATISTICS_ATTRIBUTE} после выполнения цепочки фильтров.
+ */
+@Slf4j
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    public static final String STATISTICS_ATTRIBUTE = SqlAccountingFilter.class.getName() + ".STATISTICS";
+
+    private final MeterRegistry meterRegistry;
+    private final long statementBudget;
+
+    public SqlAccountingFilter(MeterRegistry meterRegistry, long statementBudget) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.stop();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        DistributionSummary.builder("shareit.sql.statements")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("shareit.sql.rows")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder("shareit.sql.time")
+                .tag("method", method)
+                .tag("uri", endpoint)
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+        if (statistics.getStatements() > statementBudget) {
+            log.warn("Превышен бюджет SQL для {} {}: {} запросов (бюджет {}), {} строк, {} мс", method,
+                    request.getRequestURI(), statistics.getStatements(), statementBudget, statistics.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(statistics.getNanos()));
+        }
+    }
+}
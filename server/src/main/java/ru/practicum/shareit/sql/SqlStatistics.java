@@ -0,0 +1,69 @@
+package ru.practicum.shareit.sql;
+
+/**
+ * Счётчики SQL текущего HTTP-запроса: количество выполненных запросов к БД, прочитанных и изменённых строк
+ * и время выполнения. Ведутся только между {@link #start()} и {@link #stop()} в потоке запроса.
+ * <p>
+ * В интеграционных тестах количество запросов эндпоинта проверяется по счётчикам, сохранённым
+ * в атрибуте запроса {@link SqlAccountingFilter#STATISTICS_ATTRIBUTE} после завершения запроса.
+ */
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+    private long nanos;
+    private long queryStarted;
+
+    /**
+     * Начало учёта в текущем потоке
+     *
+     * @return Счётчики текущего потока
+     */
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return Счётчики текущего потока или null, если учёт не ведётся
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Окончание учёта в текущем потоке
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    void beforeQuery() {
+        queryStarted = System.nanoTime();
+    }
+
+    void afterQuery(long updatedRows) {
+        statements++;
+        rows += updatedRows;
+        nanos += System.nanoTime() - queryStarted;
+    }
+
+    void rowRead() {
+        rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
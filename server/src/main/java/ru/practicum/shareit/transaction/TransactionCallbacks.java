@@ -0,0 +1,52 @@
+package ru.practicum.shareit.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Действия над локальными индексами и кэшами, привязанные к завершению текущей транзакции.
+ * Вне транзакции действие после фиксации выполняется сразу.
+ */
+public class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Выполнение действия после фиксации текущей транзакции
+     *
+     * @param action Действие
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Выполнение действия, если текущая транзакция не зафиксирована. Вне транзакции действие не выполняется
+     *
+     * @param action Действие
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCommit;
+
+/**
+ * Ограниченный кэш Id существующих пользователей.
+ * Хранятся только положительные ответы: неизвестный Id всегда проверяется в БД.
+ * <p>
+ * Ответ БД кладётся в кэш только если с начала проверки не было удаления пользователей:
+ * каждое удаление увеличивает поколение кэша, а запись сверяет поколение атомарно по ключу.
+ * Так проверка, прочитавшая пользователя до фиксации удаления, не вернёт его в кэш.
+ * <p>
+ * Кэш локален для узла: удаление на другом экземпляре сервера здесь не видно, пока не истечёт
+ * время жизни записи (shareit.cache.user-existence.expire-after-write).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserExistenceCache {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong generation = new AtomicLong();
+    private Cache<Long, Boolean> users;
+
+    @Value("${shareit.cache.user-existence.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${shareit.cache.user-existence.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    @PostConstruct
+    public void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users.existence");
+    }
+
+    /**
+     * Проверка наличия пользователя в кэше
+     *
+     * @param userId Id пользователя
+     * @return true, если пользователь известен
+     */
+    public boolean contains(Long userId) {
+        return users.getIfPresent(userId) != null;
+    }
+
+    /**
+     * Текущее поколение кэша. Читается до проверки пользователя в БД
+     *
+     * @return Поколение для {@link #put(Long, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Добавление существующего пользователя
+     *
+     * @param userId Id пользователя
+     */
+    public void put(Long userId) {
+        users.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * Добавление пользователя, найденного в БД, если с чтения поколения не было удалений
+     *
+     * @param userId     Id пользователя
+     * @param generation Поколение, прочитанное до обращения к БД
+     */
+    public void put(Long userId, long generation) {
+        users.asMap().compute(userId, (id, present) -> this.generation.get() == generation ? Boolean.TRUE : present);
+    }
+
+    /**
+     * Добавление пользователя после фиксации транзакции
+     *
+     * @param userId Id пользователя
+     */
+    public void putAfterCommit(Long userId) {
+        afterCommit(() -> put(userId));
+    }
+
+    /**
+     * Удаление пользователя сразу и повторно после фиксации транзакции.
+     * Оба раза поколение увеличивается, поэтому проверки, начатые до фиксации удаления, пользователя не запишут
+     *
+     * @param userId Id пользователя
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        afterCommit(() -> evict(userId));
+    }
+
+    private void evict(Long userId) {
+        generation.incrementAndGet();
+        users.invalidate(userId);
+    }
+}
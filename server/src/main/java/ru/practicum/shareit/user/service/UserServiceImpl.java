@@ -4,15 +4,24 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFound;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static ru.practicum.shareit.transaction.TransactionCallbacks.afterCommit;
+
 @Service
 @AllArgsConstructor
 @Slf4j
@@ -21,11 +30,18 @@ public class UserServiceImpl implements UserService {
     private static final String USER = "пользователь";
 
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final UserExistenceCache userExistenceCache;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Override
     @Transactional
     public UserDto create(UserDto userDto) {
         User savedUser = userRepository.save(UserMapper.toModel(userDto));
+        userExistenceCache.putAfterCommit(savedUser.getId());
         log.debug("Пользователь создан {}", savedUser);
         return UserMapper.toDto(savedUser);
     }
@@ -64,14 +80,37 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void delete(Long id) {
         existsById(id);
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
+        bookingIntervalIndex.evictAfterCommit(itemIds);
+        itemSearchIndex.removeAfterCommit(itemIds);
+        bookingIntervalIndex.removeAfterCommit(
+                bookingRepository.findItemBookingsByBookerIdAndStatusIn(id, BookingIntervalIndex.ACTIVE));
         userRepository.deleteById(id);
+        userExistenceCache.invalidate(id);
+        evictCascadedAfterCommit();
     }
 
     @Override
     @Transactional(readOnly = true)
     public void existsById(Long userId) {
+        if (userExistenceCache.contains(userId)) {
+            return;
+        }
+        long generation = userExistenceCache.generation();
         if (!userRepository.existsById(userId)) {
             throw new NotFound(USER, userId);
         }
+        userExistenceCache.put(userId, generation);
+    }
+
+    /**
+     * Вещи и запросы пользователя удаляются каскадом в БД, минуя Hibernate,
+     * поэтому их регионы кэша второго уровня сбрасываются после фиксации транзакции
+     */
+    private void evictCascadedAfterCommit() {
+        afterCommit(() -> {
+            entityManagerFactory.getCache().evict(Item.class);
+            entityManagerFactory.getCache().evict(ItemRequest.class);
+        });
     }
 }
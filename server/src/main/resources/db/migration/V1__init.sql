@@ -1,21 +1,23 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-DROP TABLE IF EXISTS requests CASCADE;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    name  VARCHAR(255)                            NOT NULL,
-    email VARCHAR(255)                            NOT NULL,
+    id      BIGINT                                  NOT NULL,
+    version BIGINT DEFAULT 0                        NOT NULL,
+    name    VARCHAR(255)                            NOT NULL,
+    email   VARCHAR(255)                            NOT NULL,
     PRIMARY KEY (id),
     CONSTRAINT uniq_email UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY        NOT NULL,
+    id          BIGINT                                         NOT NULL,
+    version     BIGINT DEFAULT 0                               NOT NULL,
     name        VARCHAR(255)                                   NOT NULL,
     description TEXT                                           NOT NULL,
     available   BOOLEAN                                        NOT NULL,
@@ -26,7 +28,8 @@ CREATE TABLE IF NOT EXISTS items
 
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY        NOT NULL,
+    id         BIGINT                                         NOT NULL,
+    version    BIGINT DEFAULT 0                               NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE                    NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE                    NOT NULL,
     item_id    BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
@@ -37,7 +40,7 @@ CREATE TABLE IF NOT EXISTS bookings
 
 CREATE TABLE IF NOT EXISTS comments
 (
-    id        BIGINT GENERATED BY DEFAULT AS IDENTITY        NOT NULL,
+    id        BIGINT                                         NOT NULL,
     text      VARCHAR(512)                                   NOT NULL,
     item_id   BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
@@ -47,10 +50,10 @@ CREATE TABLE IF NOT EXISTS comments
 
 CREATE TABLE IF NOT EXISTS requests
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY        NOT NULL,
+    id           BIGINT                                         NOT NULL,
+    version      BIGINT DEFAULT 0                               NOT NULL,
     description  VARCHAR(512)                                   NOT NULL,
     requestor_id BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
     created      TIMESTAMP WITHOUT TIME ZONE,
     PRIMARY KEY (id)
 );
-
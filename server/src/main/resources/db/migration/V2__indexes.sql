@@ -0,0 +1,16 @@
+-- Бронирования пользователя по состоянию, сортировка и курсор по дате начала и Id
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+-- Бронирования вещей владельца, последнее и следующее бронирование, интервалы бронирований вещи
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date);
+-- Проверка завершённого бронирования перед комментарием
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx ON bookings (booker_id, item_id, end_date);
+-- Вещи владельца, сортировка и курсор по Id
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, id);
+-- Вещи по запросам
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+-- Комментарии вещей, сортировка по дате создания
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created DESC);
+-- Запросы пользователя
+CREATE INDEX IF NOT EXISTS requests_requestor_created_idx ON requests (requestor_id, created, id);
+-- Запросы других пользователей, сортировка и курсор по дате создания и Id
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created, id);
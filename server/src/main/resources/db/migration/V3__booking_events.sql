@@ -0,0 +1,13 @@
+CREATE SEQUENCE IF NOT EXISTS booking_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_events
+(
+    id         BIGINT                      NOT NULL,
+    booking_id BIGINT                      NOT NULL,
+    item_id    BIGINT                      NOT NULL,
+    booker_id  BIGINT                      NOT NULL,
+    owner_id   BIGINT                      NOT NULL,
+    type       VARCHAR(8)                  NOT NULL,
+    created    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
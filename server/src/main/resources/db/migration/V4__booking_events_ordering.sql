@@ -0,0 +1,11 @@
+-- Номер события в пределах вещи, выдаётся под блокировкой строки вещи, то есть в порядке фиксации транзакций
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS item_sequence BIGINT;
+UPDATE booking_events SET item_sequence = id WHERE item_sequence IS NULL;
+ALTER TABLE booking_events ALTER COLUMN item_sequence SET NOT NULL;
+-- Повторы доставки: число попыток, время следующей попытки, последняя ошибка и признак недоставляемого события
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS attempts INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS last_error VARCHAR(512);
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS dead BOOLEAN DEFAULT FALSE NOT NULL;
+-- Выборка событий по вещам в порядке номеров и проверка отложенных событий вещи
+CREATE INDEX IF NOT EXISTS booking_events_item_sequence_idx ON booking_events (item_id, item_sequence);
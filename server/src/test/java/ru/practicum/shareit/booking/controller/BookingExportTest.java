@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.export.ExportExecutor;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.export.max-concurrent=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingExportTest {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExportExecutor exportExecutor;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("delete from booking_events");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru'), (2, 'booker', 'booker@mail.ru')");
+        jdbcTemplate.update("insert into items (id, name, description, available, owner_id) values (1, 'Дрель', 'Ударная дрель', true, 1)");
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status) values (1, ?, ?, 1, 2, 'APPROVED')",
+                now.minusDays(2), now.minusDays(1));
+    }
+
+    @Test
+    void exportOverLimitIsRejectedBeforeResponseStarts() throws Exception {
+        ExportExecutor.Permit busy = exportExecutor.acquire();
+        try {
+            mockMvc.perform(get("/bookings/export").header(USER_ID, 2))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error").value("Превышено число одновременных выгрузок"));
+        } finally {
+            busy.release();
+        }
+    }
+
+    @Test
+    void finishedExportReleasesItsPlace() throws Exception {
+        export();
+        export();
+        exportExecutor.acquire().release();
+    }
+
+    private void export() throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings/export").header(USER_ID, 2))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"id\":1")));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.repository.BookingEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingEventDispatcherTest {
+
+    private static final long POISON = 1L;
+
+    private final BookingEventRepository bookingEventRepository = mock(BookingEventRepository.class);
+    private final List<BookingEvent> outbox = new CopyOnWriteArrayList<>();
+    private final List<Long> received = new ArrayList<>();
+    private BookingEventDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(bookingEventRepository.findDeliverable(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return outbox.stream()
+                    .filter(event -> !event.isDead() && outbox.stream().noneMatch(parked -> parked.getItemId().equals(event.getItemId())
+                            && !parked.isDead() && parked.getNextAttemptAt() != null && parked.getNextAttemptAt().isAfter(now)))
+                    .sorted(Comparator.comparing(BookingEvent::getItemId).thenComparing(BookingEvent::getSequence))
+                    .limit(pageable.getPageSize())
+                    .collect(Collectors.toList());
+        });
+        when(bookingEventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            outbox.removeIf(event -> ids.contains(event.getId()));
+            return null;
+        }).when(bookingEventRepository).deleteAllByIdInBatch(anyCollection());
+
+        BookingEventListener listener = event -> {
+            if (event.getId() == POISON) {
+                throw new IllegalStateException("Слушатель недоступен");
+            }
+            received.add(event.getId());
+        };
+        ObjectProvider<BookingEventListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenReturn(Stream.of(listener));
+        dispatcher = new BookingEventDispatcher(bookingEventRepository, listeners, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "retryDelay", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(dispatcher, "maxRetryDelay", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void eventsOfItemAreDeliveredInSequenceOrder() {
+        event(12L, 1L, 3L);
+        event(10L, 1L, 1L);
+        event(11L, 1L, 2L);
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(10L, 11L, 12L), received);
+        assertTrue(outbox.isEmpty());
+    }
+
+    @Test
+    void failedEventParksOnlyItsItem() {
+        event(POISON, 1L, 1L);
+        event(2L, 1L, 2L);
+        event(3L, 1L, 3L);
+        event(4L, 2L, 1L);
+        event(5L, 3L, 1L);
+        event(6L, 3L, 2L);
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(4L, 5L, 6L), received);
+        BookingEvent poison = outbox.get(0);
+        assertEquals(POISON, poison.getId());
+        assertEquals(1, poison.getAttempts());
+        assertNotNull(poison.getNextAttemptAt());
+        assertTrue(poison.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(List.of(POISON, 2L, 3L), outbox.stream().map(BookingEvent::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void eventIsMarkedDeadAfterMaxAttemptsAndItemContinues() {
+        ReflectionTestUtils.setField(dispatcher, "retryDelay", Duration.ZERO);
+        event(POISON, 1L, 1L);
+        event(2L, 1L, 2L);
+        event(3L, 1L, 3L);
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(2L, 3L), received);
+        assertEquals(1, outbox.size());
+        BookingEvent poison = outbox.get(0);
+        assertTrue(poison.isDead());
+        assertEquals(3, poison.getAttempts());
+        assertEquals("Слушатель недоступен", poison.getLastError());
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(2L, 3L), received);
+        assertFalse(outbox.isEmpty());
+    }
+
+    private void event(Long id, Long itemId, Long sequence) {
+        outbox.add(BookingEvent.builder()
+                .id(id)
+                .bookingId(id)
+                .itemId(itemId)
+                .bookerId(1L)
+                .ownerId(2L)
+                .type(BookingEventType.CREATED)
+                .created(LocalDateTime.now())
+                .sequence(sequence)
+                .build());
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingEventType;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BookingEventStreamTest {
+
+    private static final long SLOW_USER = 1L;
+    private static final long FAST_USER = 2L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch slowWriteStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseSlowWrite = new CountDownLatch(1);
+    private final CountDownLatch slowCompleted = new CountDownLatch(1);
+    private final CountDownLatch fastReceived = new CountDownLatch(1);
+    private final AtomicReference<Object> fastData = new AtomicReference<>();
+    private BookingEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new BookingEventStream(mock(UserService.class), meterRegistry, 32, 100,
+                Duration.ofMinutes(30), Duration.ofHours(1), 1, Duration.ofMillis(200), 4) {
+            private int created;
+
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return created++ == 0 ? new SlowEmitter(timeoutMillis) : new FastEmitter(timeoutMillis);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowWrite.countDown();
+        stream.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberIsEvictedWithoutBlockingOthers() throws InterruptedException {
+        stream.subscribe(SLOW_USER);
+        stream.subscribe(FAST_USER);
+
+        stream.onEvent(event(SLOW_USER));
+        assertTrue(slowWriteStarted.await(5, TimeUnit.SECONDS));
+        stream.onEvent(event(FAST_USER));
+
+        assertTrue(fastReceived.await(5, TimeUnit.SECONDS), "Запись медленному подписчику задержала остальных");
+        assertEquals(1.0, meterRegistry.counter("shareit.stream.evicted").count());
+        assertEquals(1.0, meterRegistry.get("shareit.stream.subscribers").gauge().value());
+
+        releaseSlowWrite.countDown();
+        assertTrue(slowCompleted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribersReceiveEventWithoutDeliveryState() throws InterruptedException {
+        stream.subscribe(SLOW_USER);
+        stream.subscribe(FAST_USER);
+        BookingEvent event = event(FAST_USER);
+        event.setType(BookingEventType.APPROVED);
+        event.setAttempts(3);
+        event.setLastError("Ошибка слушателя");
+
+        stream.onEvent(event);
+
+        assertTrue(fastReceived.await(5, TimeUnit.SECONDS));
+        assertEquals(BookingEventDto.builder()
+                .id(FAST_USER)
+                .type(BookingEventType.APPROVED)
+                .bookingId(FAST_USER)
+                .itemId(FAST_USER)
+                .status(BookingStatus.APPROVED)
+                .created(event.getCreated())
+                .build(), fastData.get());
+    }
+
+    private static BookingEvent event(Long userId) {
+        return BookingEvent.builder()
+                .id(userId)
+                .bookingId(userId)
+                .itemId(userId)
+                .bookerId(userId)
+                .ownerId(userId)
+                .type(BookingEventType.CREATED)
+                .created(LocalDateTime.now())
+                .sequence(1L)
+                .build();
+    }
+
+    /**
+     * Клиент, который не читает: запись блокируется до завершения теста
+     */
+    private class SlowEmitter extends SseEmitter {
+
+        SlowEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            slowWriteStarted.countDown();
+            try {
+                releaseSlowWrite.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            slowCompleted.countDown();
+            super.complete();
+        }
+    }
+
+    private class FastEmitter extends SseEmitter {
+
+        FastEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .filter(part -> MediaType.APPLICATION_JSON.equals(part.getMediaType()))
+                    .forEach(part -> fastData.set(part.getData()));
+            fastReceived.countDown();
+        }
+    }
+}
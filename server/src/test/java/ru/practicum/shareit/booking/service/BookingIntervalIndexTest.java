@@ -0,0 +1,228 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+
+    private static final int ITEMS = 4;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 5_000;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final Map<Long, Booking> database = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final LocalDateTime now = LocalDateTime.now();
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(bookingRepository.findAllByItemIdAndStatusIn(anyLong(), any())).thenAnswer(invocation -> {
+            Long itemId = invocation.getArgument(0);
+            return database.values().stream()
+                    .filter(booking -> booking.getItem().getId().equals(itemId))
+                    .map(Interval::new)
+                    .collect(Collectors.toList());
+        });
+        index = new BookingIntervalIndex(bookingRepository);
+    }
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int operation = 0; operation < OPERATIONS; operation++) {
+                    step(ThreadLocalRandom.current());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            List<Booking> bookings = bookingsOf(itemId);
+            for (int i = 1; i < bookings.size(); i++) {
+                assertFalse(bookings.get(i).getStart().isBefore(bookings.get(i - 1).getEnd()),
+                        "Пересечение бронирований " + bookings.get(i - 1).getId() + " и " + bookings.get(i).getId());
+            }
+            for (Booking booking : bookings) {
+                assertTrue(index.hasOverlap(itemId, booking.getStart(), booking.getEnd(), null));
+            }
+        }
+    }
+
+    @Test
+    void endedIntervalsArePruned() {
+        save(1L, now.minusDays(2), now.minusDays(1));
+        Booking future = save(1L, now.plusDays(1), now.plusDays(2));
+
+        assertFalse(index.hasOverlap(1L, now.minusDays(2), now.minusDays(1), null));
+        assertTrue(index.hasOverlap(1L, future.getStart(), future.getEnd(), null));
+    }
+
+    @Test
+    void endedIntervalsOverlappingActiveOnesAreKept() {
+        Booking ended = save(1L, now.minusHours(3), now.minusHours(1));
+        Booking active = save(1L, now.minusHours(2), now.plusHours(5));
+
+        assertTrue(index.hasOverlap(1L, ended.getStart(), ended.getEnd(), active.getId()));
+    }
+
+    @Test
+    void excludedLongestIntervalDoesNotHideOtherOverlap() {
+        Booking longest = save(1L, now.plusDays(1), now.plusDays(30));
+        save(1L, now.plusDays(2), now.plusDays(5));
+
+        assertTrue(index.hasOverlap(1L, now.plusDays(4), now.plusDays(6), longest.getId()));
+        assertFalse(index.hasOverlap(1L, now.plusDays(6), now.plusDays(8), longest.getId()));
+    }
+
+    @Test
+    void removingBookingsOfUserKeepsOtherIntervalsOfItem() {
+        Booking kept = save(1L, now.plusDays(1), now.plusDays(2));
+        Booking removed = save(1L, now.plusDays(3), now.plusDays(4));
+        index.hasOverlap(1L, now, now.plusDays(10), null);
+        database.remove(removed.getId());
+
+        index.removeAfterCommit(List.of(view(removed)));
+
+        assertTrue(index.hasOverlap(1L, kept.getStart(), kept.getEnd(), null));
+        assertFalse(index.hasOverlap(1L, removed.getStart(), removed.getEnd(), null));
+    }
+
+    @Test
+    void evictingItemsReloadsOnlyThoseItems() {
+        Booking first = save(1L, now.plusDays(1), now.plusDays(2));
+        Booking second = save(2L, now.plusDays(1), now.plusDays(2));
+        index.hasOverlap(1L, now, now.plusDays(10), null);
+        index.hasOverlap(2L, now, now.plusDays(10), null);
+        database.remove(first.getId());
+        database.remove(second.getId());
+
+        index.evictAfterCommit(List.of(1L));
+
+        assertFalse(index.hasOverlap(1L, first.getStart(), first.getEnd(), null));
+        assertTrue(index.hasOverlap(2L, second.getStart(), second.getEnd(), null));
+    }
+
+    /**
+     * Создание бронирования, отклонение или сброс интервалов случайной вещи
+     */
+    private void step(ThreadLocalRandom random) {
+        long itemId = random.nextLong(1, ITEMS + 1);
+        int action = random.nextInt(20);
+        if (action == 0) {
+            index.evictAfterCommit(List.of(itemId));
+        } else if (action < 4) {
+            List<Booking> bookings = bookingsOf(itemId);
+            if (!bookings.isEmpty()) {
+                Booking booking = bookings.get(random.nextInt(bookings.size()));
+                database.remove(booking.getId());
+                index.removeAfterCommit(itemId, booking.getId());
+            }
+        } else {
+            LocalDateTime start = now.plusHours(1 + random.nextInt(2_000));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(48));
+            index.withItemLock(itemId, () -> {
+                if (!index.hasOverlap(itemId, start, end, null)) {
+                    index.add(save(itemId, start, end));
+                }
+                return null;
+            });
+        }
+    }
+
+    private Booking save(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Booking booking = Booking.builder()
+                .id(ids.incrementAndGet())
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(itemId).build())
+                .build();
+        database.put(booking.getId(), booking);
+        return booking;
+    }
+
+    private List<Booking> bookingsOf(long itemId) {
+        return database.values().stream()
+                .filter(booking -> booking.getItem().getId() == itemId)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .collect(Collectors.toList());
+    }
+
+    private static ItemBookingView view(Booking booking) {
+        return new ItemBookingView() {
+            @Override
+            public Long getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public Long getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return null;
+            }
+        };
+    }
+
+    private static final class Interval implements BookingInterval {
+        private final Booking booking;
+
+        Interval(Booking booking) {
+            this.booking = booking;
+        }
+
+        @Override
+        public Long getId() {
+            return booking.getId();
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return booking.getStart();
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return booking.getEnd();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.BookingRequestDto;
+import ru.practicum.shareit.exception.NotAvailable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Параллельное создание пересекающихся бронирований одной вещи в H2: строка вещи блокируется до фиксации
+ * ({@code lockItem}), поэтому создаётся ровно одно бронирование. Отдельная БД с увеличенным тайм-аутом блокировки,
+ * чтобы ожидающие транзакции не завершались по тайм-ауту.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:shareit-locks;LOCK_TIMEOUT=10000")
+@ActiveProfiles("test")
+class BookingServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final long ITEM = 1L;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from booking_events");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru')");
+        for (long bookerId = 2; bookerId < THREADS + 2; bookerId++) {
+            jdbcTemplate.update("insert into users (id, name, email) values (?, ?, ?)",
+                    bookerId, "booker" + bookerId, "booker" + bookerId + "@mail.ru");
+        }
+        jdbcTemplate.update("insert into items (id, name, description, available, owner_id) values (1, 'Дрель', 'Ударная дрель', true, 1)");
+        bookingIntervalIndex.evictAfterCommit(List.of(ITEM));
+    }
+
+    @Test
+    void onlyOneOfOverlappingBookingsIsCreated() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            long bookerId = i + 2;
+            BookingRequestDto booking = BookingRequestDto.builder()
+                    .itemId(ITEM)
+                    .start(start.plusHours(i))
+                    .end(start.plusDays(2).plusHours(i))
+                    .build();
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return bookingService.create(booking, bookerId);
+            }));
+        }
+        ready.countDown();
+
+        int created = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(NotAvailable.class, e.getCause());
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from bookings where item_id = ?", Integer.class, ITEM));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from booking_events where item_id = ?", Integer.class, ITEM));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кэш второго уровня: прочитанные по Id сущности попадают в регионы, изменения через Hibernate их обновляют,
+ * а вещи, удалённые в БД каскадом вместе с владельцем, сбрасываются из региона.
+ * Кэш выключен по умолчанию и включается только в контексте этого теста.
+ */
+@SpringBootTest(properties = "shareit.cache.second-level.enabled=true")
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru')");
+        jdbcTemplate.update("insert into items (id, name, description, available, owner_id) values (1, 'Дрель', 'Ударная дрель', true, 1)");
+        cache = entityManagerFactory.getCache();
+        cache.evictAll();
+    }
+
+    @Test
+    void userReadByIdIsCached() {
+        userService.get(1L);
+
+        assertTrue(cache.contains(User.class, 1L));
+    }
+
+    @Test
+    void updatedUserReplacesCachedOne() {
+        userService.get(1L);
+
+        userService.update(1L, UserDto.builder().name("updated").build());
+
+        assertTrue(cache.contains(User.class, 1L));
+        assertEquals("updated", userService.get(1L).getName());
+    }
+
+    @Test
+    void deletingOwnerEvictsCascadedItems() {
+        itemService.get(1L);
+        assertTrue(cache.contains(Item.class, 1L));
+
+        userService.delete(1L);
+
+        assertFalse(cache.contains(Item.class, 1L));
+    }
+}
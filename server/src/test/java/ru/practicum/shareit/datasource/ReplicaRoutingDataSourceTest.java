@@ -0,0 +1,128 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", pool(firstReplicaConnection));
+        replicas.put("replica-1", pool(secondReplicaConnection));
+        ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+        properties.setReadYourWritesWindow(Duration.ofMinutes(1));
+        dataSource = new ReplicaRoutingDataSource(pool(primaryConnection), replicas, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void readOnlyRequestsAlternateBetweenReplicas() throws SQLException {
+        inTransaction(true);
+
+        inRequest(1L);
+        assertSame(firstReplicaConnection, target());
+        inRequest(1L);
+        assertSame(secondReplicaConnection, target());
+        inRequest(1L);
+        assertSame(firstReplicaConnection, target());
+    }
+
+    @Test
+    void readOnlyTransactionsOfRequestUseOneReplica() throws SQLException {
+        inRequest(1L);
+        inTransaction(true);
+
+        assertSame(firstReplicaConnection, target());
+        assertSame(firstReplicaConnection, target());
+
+        inRequest(2L);
+        assertSame(secondReplicaConnection, target());
+        assertSame(secondReplicaConnection, target());
+    }
+
+    @Test
+    void readWriteTransactionsUsePrimary() throws SQLException {
+        inRequest(1L);
+        inTransaction(false);
+
+        assertSame(primaryConnection, target());
+    }
+
+    @Test
+    void readsOutsideTransactionUsePrimary() throws SQLException {
+        inRequest(1L);
+
+        assertSame(primaryConnection, target());
+    }
+
+    @Test
+    void readOnlyTransactionsOutsideRequestUsePrimary() throws SQLException {
+        inTransaction(true);
+
+        assertSame(primaryConnection, target());
+    }
+
+    @Test
+    void writerReadsFromPrimaryWithinReadYourWritesWindow() throws SQLException {
+        inRequest(1L);
+        inTransaction(false);
+        target();
+
+        inTransaction(true);
+        assertSame(primaryConnection, target());
+
+        inRequest(2L);
+        assertSame(firstReplicaConnection, target());
+    }
+
+    private Connection target() throws SQLException {
+        return ((ConnectionProxy) dataSource.getConnection()).getTargetConnection();
+    }
+
+    private static void inRequest(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Sharer-User-Id", userId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static HikariDataSource pool(Connection connection) throws SQLException {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
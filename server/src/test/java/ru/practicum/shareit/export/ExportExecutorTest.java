@@ -0,0 +1,100 @@
+package ru.practicum.shareit.export;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import ru.practicum.shareit.exception.ServiceUnavailable;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ExportExecutorTest {
+
+    private final ExportExecutor exportExecutor = new ExportExecutor(1, new SimpleMeterRegistry());
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/export");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private WebAsyncManager asyncManager;
+
+    @BeforeEach
+    void setUp() {
+        request.setAsyncSupported(true);
+        asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportExecutor.shutdown();
+    }
+
+    @Test
+    void rejectedExportReleasesItsPlaceOnCompletion() {
+        AtomicBoolean written = new AtomicBoolean();
+        exportExecutor.shutdown();
+        WebAsyncTask<Void> task = exportExecutor.submit(new ServletWebRequest(request, response), () -> {
+            written.set(true);
+            return null;
+        });
+        assertThrows(ServiceUnavailable.class, exportExecutor::acquire);
+
+        assertThrows(TaskRejectedException.class, () -> asyncManager.startCallableProcessing(task));
+        request.getAsyncContext().complete();
+
+        assertFalse(written.get());
+        exportExecutor.acquire().release();
+    }
+
+    @Test
+    void runningExportKeepsItsPlaceAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Semaphore finish = new Semaphore(0);
+        WebAsyncTask<Void> task = exportExecutor.submit(new ServletWebRequest(request, response), () -> {
+            started.countDown();
+            finish.acquireUninterruptibly();
+            return null;
+        });
+        asyncManager.startCallableProcessing(task);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        asyncContext.complete();
+        assertThrows(ServiceUnavailable.class, exportExecutor::acquire);
+
+        finish.release();
+        awaitFreePlace();
+    }
+
+    private void awaitFreePlace() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try {
+                exportExecutor.acquire().release();
+                return;
+            } catch (ServiceUnavailable e) {
+                Thread.sleep(50);
+            }
+        }
+        fail("Место выгрузки не освобождено");
+    }
+}
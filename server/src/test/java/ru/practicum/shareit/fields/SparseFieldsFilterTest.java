@@ -0,0 +1,55 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.item.model.ItemSummaryDto;
+import ru.practicum.shareit.user.model.UserSummaryDto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SparseFieldsFilterTest {
+
+    private final ObjectMapper objectMapper = objectMapper();
+    private final BookingDto booking = BookingDto.builder()
+            .id(1L)
+            .item(ItemSummaryDto.builder().id(2L).name("Дрель").build())
+            .booker(UserSummaryDto.builder().id(3L).name("booker").build())
+            .status(BookingStatus.APPROVED)
+            .build();
+
+    @Test
+    void onlyRequestedFieldsAreSerialized() throws Exception {
+        assertEquals(objectMapper.readTree("{\"id\":1,\"status\":\"APPROVED\",\"item\":{\"name\":\"Дрель\"}}"),
+                write("id,status,item.name"));
+    }
+
+    @Test
+    void requestedObjectIsSerializedWhole() throws Exception {
+        assertEquals(objectMapper.readTree("{\"item\":{\"id\":2,\"name\":\"Дрель\"}}"), write("item"));
+    }
+
+    @Test
+    void allFieldsAreSerializedWithoutParameter() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(booking));
+
+        assertEquals(6, json.size());
+        assertEquals("booker", json.get("booker").get("name").asText());
+    }
+
+    private JsonNode write(String fields) throws Exception {
+        String json = objectMapper.writer(new SimpleFilterProvider().addFilter(SparseFieldsFilter.ID, new SparseFieldsFilter(fields)))
+                .writeValueAsString(booking);
+        return objectMapper.readTree(json);
+    }
+
+    private static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new SparseFieldsConfig().sparseFieldsCustomizer().customize(builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов эндпоинтов чтения не зависит от размера страницы: связи сущностей ленивые,
+ * нужные загружаются графами сущностей и проекциями. Рост числа запросов означает N+1.
+ * Пользователи заранее помещаются в кэш существования, чтобы число запросов не зависело от порядка тестов.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointStatementCountTest {
+
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final long OWNER = 1L;
+    private static final long BOOKER = 2L;
+    private static final long REQUESTOR = 3L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserExistenceCache userExistenceCache;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("delete from booking_events");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values " +
+                "(1, 'owner', 'owner@mail.ru'), (2, 'booker', 'booker@mail.ru'), (3, 'requestor', 'requestor@mail.ru')");
+        jdbcTemplate.update("insert into requests (id, description, requestor_id, created) values " +
+                "(1, 'Нужна дрель', 3, ?), (2, 'Нужна пила', 3, ?)", now.minusDays(2), now.minusDays(1));
+        jdbcTemplate.update("insert into items (id, name, description, available, owner_id, request_id) values " +
+                "(1, 'Дрель', 'Ударная дрель', true, 1, 1), (2, 'Пила', 'Ручная пила', true, 1, 2), " +
+                "(3, 'Отвёртка', 'Крестовая', true, 1, null)");
+        for (long itemId = 1; itemId <= 3; itemId++) {
+            insertBooking(itemId * 10 + 1, itemId, now.minusDays(3), now.minusDays(2), "APPROVED");
+            insertBooking(itemId * 10 + 2, itemId, now.plusDays(2), now.plusDays(3), "APPROVED");
+            insertBooking(itemId * 10 + 3, itemId, now.plusDays(5), now.plusDays(6), "WAITING");
+            jdbcTemplate.update("insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)",
+                    itemId, "Отлично", itemId, BOOKER, now.minusDays(1));
+        }
+        userExistenceCache.put(OWNER);
+        userExistenceCache.put(BOOKER);
+        userExistenceCache.put(REQUESTOR);
+    }
+
+    @Test
+    void bookingsOfBooker() throws Exception {
+        perform(get("/bookings").param("size", "1"), BOOKER, 1, 1);
+        perform(get("/bookings").param("size", "10"), BOOKER, 9, 1);
+    }
+
+    @Test
+    void bookingsOfOwner() throws Exception {
+        perform(get("/bookings/owner").param("size", "1"), OWNER, 1, 1);
+        perform(get("/bookings/owner").param("size", "10"), OWNER, 9, 1);
+    }
+
+    @Test
+    void booking() throws Exception {
+        mockMvc.perform(get("/bookings/11").header(USER_ID, BOOKER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name").value("Дрель"))
+                .andExpect(SqlStatements.count(2));
+    }
+
+    @Test
+    void itemsOfOwner() throws Exception {
+        perform(get("/items").param("size", "1"), OWNER, 1, 4);
+        perform(get("/items").param("size", "10"), OWNER, 3, 4);
+    }
+
+    @Test
+    void itemOfOwner() throws Exception {
+        mockMvc.perform(get("/items/1").header(USER_ID, OWNER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(1))
+                .andExpect(jsonPath("$.lastBooking.id").value(11))
+                .andExpect(jsonPath("$.nextBooking.id").value(12))
+                .andExpect(SqlStatements.count(7));
+    }
+
+    @Test
+    void itemOfOtherUser() throws Exception {
+        mockMvc.perform(get("/items/1").header(USER_ID, BOOKER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(1))
+                .andExpect(SqlStatements.count(3));
+    }
+
+    @Test
+    void requestsOfRequestor() throws Exception {
+        mockMvc.perform(get("/requests").header(USER_ID, REQUESTOR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].items.length()").value(1))
+                .andExpect(SqlStatements.count(2));
+    }
+
+    @Test
+    void requestsOfOthers() throws Exception {
+        perform(get("/requests/all").param("size", "1"), BOOKER, 1, 2);
+        perform(get("/requests/all").param("size", "10"), BOOKER, 2, 2);
+    }
+
+    @Test
+    void request() throws Exception {
+        mockMvc.perform(get("/requests/1").header(USER_ID, BOOKER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(SqlStatements.count(3));
+    }
+
+    private void perform(MockHttpServletRequestBuilder request, long userId, int expectedSize, long expectedStatements)
+            throws Exception {
+        mockMvc.perform(request.header(USER_ID, userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedSize))
+                .andExpect(SqlStatements.count(expectedStatements));
+    }
+
+    private void insertBooking(long id, long itemId, LocalDateTime start, LocalDateTime end, String status) {
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", id, start, end, itemId, BOOKER, status);
+    }
+}
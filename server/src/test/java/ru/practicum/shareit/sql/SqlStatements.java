@@ -0,0 +1,34 @@
+package ru.practicum.shareit.sql;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Проверка точного числа SQL-запросов эндпоинта в тестах MockMvc по счётчикам
+ * {@link SqlAccountingFilter#STATISTICS_ATTRIBUTE}, сохранённым после завершения запроса.
+ * Учитываются и запросы, выполненные при сериализации ответа (ленивая загрузка).
+ * <p>
+ * Запросы фоновых потоков (диспетчер outbox, выгрузки) не учитываются: счётчики ведутся в потоке запроса.
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param expected Ожидаемое число SQL-запросов
+     * @return Проверка ответа MockMvc
+     */
+    public static ResultMatcher count(long expected) {
+        return result -> {
+            SqlStatistics statistics = (SqlStatistics) result.getRequest()
+                    .getAttribute(SqlAccountingFilter.STATISTICS_ATTRIBUTE);
+            assertNotNull(statistics, "Нет счётчиков SQL, проверьте shareit.sql.accounting.enabled");
+            assertEquals(expected, statistics.getStatements(), () -> "Число SQL-запросов "
+                    + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.user.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.sql.SqlStatements;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Пользователи пересоздаются в БД напрямую, поэтому кэш второго уровня, если он включён, сбрасывается
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from booking_events");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'user1', 'user1@mail.ru'), (2, 'user2', 'user2@mail.ru')");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void getUserRunsOneStatement() throws Exception {
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("user1"))
+                .andExpect(SqlStatements.count(1));
+    }
+
+    @Test
+    void getUsersRunsOneStatement() throws Exception {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(SqlStatements.count(1));
+    }
+
+    @Test
+    void updateUserRunsSelectAndUpdate() throws Exception {
+        mockMvc.perform(patch("/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"updated\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("updated"))
+                .andExpect(SqlStatements.count(2));
+    }
+}
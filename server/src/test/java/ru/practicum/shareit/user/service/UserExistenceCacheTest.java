@@ -0,0 +1,43 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserExistenceCacheTest {
+
+    private final UserExistenceCache userExistenceCache = new UserExistenceCache(new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userExistenceCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(userExistenceCache, "expireAfterWrite", Duration.ofMinutes(10));
+        userExistenceCache.init();
+    }
+
+    @Test
+    void userReadBeforeDeletionIsNotCached() {
+        long generation = userExistenceCache.generation();
+        userExistenceCache.invalidate(1L);
+
+        userExistenceCache.put(1L, generation);
+
+        assertFalse(userExistenceCache.contains(1L));
+    }
+
+    @Test
+    void userReadAfterDeletionOfOtherUserIsCached() {
+        userExistenceCache.invalidate(2L);
+        long generation = userExistenceCache.generation();
+
+        userExistenceCache.put(1L, generation);
+
+        assertTrue(userExistenceCache.contains(1L));
+    }
+}